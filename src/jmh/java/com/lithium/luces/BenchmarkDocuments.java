@@ -0,0 +1,145 @@
+/*
+ * BenchmarkDocuments.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.Field.Index;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.NumericField;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Mappings and documents of different shapes for the benchmarks. Field i has the mapping type TYPES[i % TYPES.length]
+ */
+public final class BenchmarkDocuments {
+
+	public static final String TYPE = "benchType";
+
+	/** One field of each mapping type */
+	static final String[] TYPES = {"string", "byte", "short", "integer", "long", "float", "double", "boolean"};
+
+	public enum Shape {
+		/** A handful of single valued fields, like a user profile */
+		FLAT(10, 1),
+		/** Many single valued fields */
+		WIDE(500, 1),
+		/** Fields with many values each, added interleaved so repeated names aren't adjacent */
+		MULTI_VALUED(20, 25);
+
+		final int fields;
+		final int valuesPerField;
+
+		Shape(int fields, int valuesPerField) {
+			this.fields = fields;
+			this.valuesPerField = valuesPerField;
+		}
+	}
+
+	private BenchmarkDocuments() {
+	}
+
+	static String fieldName(int i) {
+		return TYPES[i % TYPES.length] + "_field_" + i;
+	}
+
+	static JsonObject mapping(Shape shape) {
+		JsonObject properties = new JsonObject();
+		for (int i = 0; i < shape.fields; ++i) {
+			JsonObject def = new JsonObject();
+			def.addProperty("type", TYPES[i % TYPES.length]);
+			properties.add(fieldName(i), def);
+		}
+		JsonObject type = new JsonObject();
+		type.add("properties", properties);
+		JsonObject mapping = new JsonObject();
+		mapping.add(TYPE, type);
+		return mapping;
+	}
+
+	static Document document(Shape shape) {
+		Document doc = new Document();
+		for (int v = 0; v < shape.valuesPerField; ++v) {
+			for (int i = 0; i < shape.fields; ++i) {
+				doc.add(new Field(fieldName(i), value(TYPES[i % TYPES.length], i + v), Store.YES, Index.NOT_ANALYZED));
+			}
+		}
+		return doc;
+	}
+
+	/**
+	 * @return the document with its numbers as Lucene numeric fields instead of strings
+	 */
+	static Document numericDocument(Shape shape) {
+		Document doc = new Document();
+		for (int v = 0; v < shape.valuesPerField; ++v) {
+			for (int i = 0; i < shape.fields; ++i) {
+				String type = TYPES[i % TYPES.length];
+				String value = value(type, i + v).trim();
+				NumericField numeric = new NumericField(fieldName(i), Store.YES, true);
+				switch (type) {
+					case "byte":
+					case "short":
+					case "integer":
+						doc.add(numeric.setIntValue(Integer.parseInt(value)));
+						break;
+					case "long":
+						doc.add(numeric.setLongValue(Long.parseLong(value)));
+						break;
+					case "float":
+						doc.add(numeric.setFloatValue(Float.parseFloat(value)));
+						break;
+					case "double":
+						doc.add(numeric.setDoubleValue(Double.parseDouble(value)));
+						break;
+					default:
+						doc.add(new Field(fieldName(i), value(type, i + v), Store.YES, Index.NOT_ANALYZED));
+						break;
+				}
+			}
+		}
+		return doc;
+	}
+
+	/**
+	 * @return a string value for the mapping type, with surrounding whitespace for the numbers
+	 */
+	static String value(String type, int seed) {
+		switch (type) {
+			case "byte":
+				return " " + (seed % 128) + " ";
+			case "short":
+				return " " + (seed * 31 % 32768) + " ";
+			case "integer":
+				return " " + (2147483000 + seed) + " ";
+			case "long":
+				return " " + (1420070400000L + seed) + " ";
+			case "float":
+				return " " + (seed / 8.0f) + " ";
+			case "double":
+				return " " + (seed * 1.0001) + " ";
+			case "boolean":
+				return seed % 2 == 0 ? " true " : "false";
+			default:
+				return "value <" + seed + "> & \"text\"";
+		}
+	}
+}
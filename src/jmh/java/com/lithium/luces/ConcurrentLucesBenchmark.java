@@ -0,0 +1,75 @@
+/*
+ * ConcurrentLucesBenchmark.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.util.Version;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of one {@link ConcurrentLuces} shared by one thread and by a thread per core. With no contention on the
+ * shared converter, the total should grow about linearly with the cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentLucesBenchmark {
+
+	@Param({"FLAT", "WIDE"})
+	public BenchmarkDocuments.Shape shape;
+
+	private ConcurrentLuces shared;
+	private Document doc;
+
+	@Setup
+	public void setUp() {
+		shared = new ConcurrentLuces(Version.LUCENE_36,
+				LucesMapping.compile(BenchmarkDocuments.TYPE, BenchmarkDocuments.mapping(shape)));
+		doc = BenchmarkDocuments.document(shape);
+	}
+
+	@Benchmark
+	@Threads(1)
+	public String oneThread() {
+		return shared.documentToJSONStringified(doc, false);
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public String threadPerCore() {
+		return shared.documentToJSONStringified(doc, false);
+	}
+}
@@ -0,0 +1,92 @@
+/*
+ * DocumentBenchmark.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.util.Version;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.JsonElement;
+
+/**
+ * Whole document conversion, to a JSON tree, a string and a byte stream, and of numbers stored as numeric fields
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DocumentBenchmark {
+
+	@Param({"FLAT", "WIDE", "MULTI_VALUED"})
+	public BenchmarkDocuments.Shape shape;
+
+	private Luces luces;
+	private Document doc;
+	private Document numericDoc;
+	private ByteArrayOutputStream out;
+
+	@Setup
+	public void setUp() {
+		luces = new Luces(Version.LUCENE_36).mapping(BenchmarkDocuments.TYPE, BenchmarkDocuments.mapping(shape));
+		doc = BenchmarkDocuments.document(shape);
+		numericDoc = BenchmarkDocuments.numericDocument(shape);
+		out = new ByteArrayOutputStream(64 * 1024);
+	}
+
+	@Benchmark
+	public JsonElement documentToJSON() {
+		return luces.documentToJSON(doc);
+	}
+
+	@Benchmark
+	public String documentToJSONStringified() {
+		return luces.documentToJSONStringified(doc, false);
+	}
+
+	@Benchmark
+	public int writeJSON() throws IOException {
+		out.reset();
+		luces.writeJSON(doc, out, false);
+		return out.size();
+	}
+
+	@Benchmark
+	public int writeJSONNumericFields() throws IOException {
+		out.reset();
+		luces.writeJSON(numericDoc, out, false);
+		return out.size();
+	}
+}
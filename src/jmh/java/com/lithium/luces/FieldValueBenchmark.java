@@ -0,0 +1,69 @@
+/*
+ * FieldValueBenchmark.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.util.Version;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link Luces#getFieldValue(String, String)} for each mapping type
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldValueBenchmark {
+
+	@Param({"string", "byte", "short", "integer", "long", "float", "double", "boolean"})
+	public String type;
+
+	private Luces luces;
+	private String name;
+	private String value;
+
+	@Setup
+	public void setUp() {
+		luces = new Luces(Version.LUCENE_36).mapping(BenchmarkDocuments.TYPE,
+				BenchmarkDocuments.mapping(BenchmarkDocuments.Shape.FLAT));
+		int field = Arrays.asList(BenchmarkDocuments.TYPES).indexOf(type);
+		name = BenchmarkDocuments.fieldName(field);
+		value = BenchmarkDocuments.value(type, 42);
+	}
+
+	@Benchmark
+	public Object getFieldValue() {
+		return luces.getFieldValue(name, value);
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * GsonBenchmark.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Fieldable;
+import org.apache.lucene.util.Version;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+
+/**
+ * Building a JSON tree with a new Gson instance and a field map per document, the way documentToJSON used to, against
+ * the converter's shared Gson instance and document adapter
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GsonBenchmark {
+
+	@Param({"FLAT", "WIDE", "MULTI_VALUED"})
+	public BenchmarkDocuments.Shape shape;
+
+	private Luces luces;
+	private Document doc;
+
+	@Setup
+	public void setUp() {
+		luces = new Luces(Version.LUCENE_36).mapping(BenchmarkDocuments.TYPE, BenchmarkDocuments.mapping(shape));
+		doc = BenchmarkDocuments.document(shape);
+	}
+
+	@Benchmark
+	public JsonElement newGsonPerDocument() {
+		Map<String, Object> fields = new LinkedHashMap<>();
+		for (Fieldable field : doc.getFields()) {
+			Object value = luces.getFieldValue(field);
+			Object previous = fields.get(field.name());
+			if (previous instanceof List) {
+				@SuppressWarnings("unchecked")
+				List<Object> values = (List<Object>) previous;
+				values.add(value);
+			} else if (previous != null) {
+				List<Object> values = new ArrayList<>();
+				values.add(previous);
+				values.add(value);
+				fields.put(field.name(), values);
+			} else {
+				fields.put(field.name(), value);
+			}
+		}
+		return new Gson().toJsonTree(fields);
+	}
+
+	@Benchmark
+	public JsonElement sharedGson() {
+		return luces.documentToJSON(doc);
+	}
+}
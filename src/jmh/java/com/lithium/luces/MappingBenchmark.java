@@ -0,0 +1,73 @@
+/*
+ * MappingBenchmark.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Compiling a mapping JSON object
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+	@Param({"FLAT", "WIDE"})
+	public BenchmarkDocuments.Shape shape;
+
+	private JsonObject mapping;
+	private MappingCache cache;
+
+	@Setup
+	public void setUp() {
+		mapping = BenchmarkDocuments.mapping(shape);
+		cache = new MappingCache();
+	}
+
+	@Benchmark
+	public LucesMapping compile() {
+		return LucesMapping.compile(BenchmarkDocuments.TYPE, mapping);
+	}
+
+	/**
+	 * Switching to a mapping that was compiled before: hashing the JSON and a lookup
+	 */
+	@Benchmark
+	public LucesMapping compileCached() {
+		return cache.compile(BenchmarkDocuments.TYPE, mapping);
+	}
+}
@@ -0,0 +1,205 @@
+/*
+ * TransferBenchmark.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.analysis.WhitespaceAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.Field.Index;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.Version;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Reindexes an in-memory index into a local stub of the Elasticsearch _bulk endpoint, which answers each body after a
+ * simulated network delay. Compares a fixed pool of platform threads with virtual threads, which keep up to
+ * {@link #PENDING_RANGES} ranges in flight. Run with {@code -prof gc} for the memory footprint; the conversion runs
+ * on the pool, so compare the allocation rates rather than the bytes per op of the benchmark thread. Before JDK 21
+ * both modes use platform threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransferBenchmark {
+
+	private static final int DOCUMENTS = 20000;
+	private static final int THREADS = 4;
+	private static final int PENDING_RANGES = 64;
+	private static final byte[] RESPONSE = "{\"took\":1,\"errors\":false,\"items\":[]}".getBytes(StandardCharsets.UTF_8);
+
+	public enum Threads {
+		PLATFORM, VIRTUAL
+	}
+
+	@Param({"PLATFORM", "VIRTUAL"})
+	public Threads threads;
+
+	/** Simulated round trip of one bulk request */
+	@Param({"0", "2"})
+	public int latencyMillis;
+
+	private HttpServer server;
+	private ExecutorService serverThreads;
+	private IndexReader reader;
+	private ConcurrentLuces converter;
+	private BulkSink sink;
+
+	@Setup
+	public void setUp() throws IOException {
+		// without it, the stub's delayed ACKs add up to 40ms to every request
+		System.setProperty("sun.net.httpserver.nodelay", "true");
+		serverThreads = Executors.newCachedThreadPool();
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 256);
+		server.createContext("/_bulk", new StubBulkHandler(latencyMillis));
+		server.setExecutor(serverThreads);
+		server.start();
+		sink = new HttpBulkSink(new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/_bulk"));
+
+		RAMDirectory directory = new RAMDirectory();
+		IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(Version.LUCENE_36,
+				new WhitespaceAnalyzer(Version.LUCENE_36)));
+		for (int i = 0; i < DOCUMENTS; ++i) {
+			Document doc = BenchmarkDocuments.document(BenchmarkDocuments.Shape.FLAT);
+			doc.add(new Field("id", String.valueOf(i), Store.YES, Index.NOT_ANALYZED));
+			writer.addDocument(doc);
+		}
+		writer.close();
+		reader = IndexReader.open(directory);
+		converter = new ConcurrentLuces(Version.LUCENE_36, LucesMapping.compile(BenchmarkDocuments.TYPE,
+				BenchmarkDocuments.mapping(BenchmarkDocuments.Shape.FLAT)));
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		reader.close();
+		server.stop(0);
+		serverThreads.shutdownNow();
+	}
+
+	@Benchmark
+	public long reindex() throws IOException {
+		return new LucesReindexer(converter, BulkOptions.forIndex("bench").withIdField("id").withMaxDocuments(500),
+				sink)
+				.threads(THREADS)
+				.rangeSize(500)
+				.maxPendingRanges(PENDING_RANGES)
+				.virtualThreads(threads == Threads.VIRTUAL)
+				.reindex(reader);
+	}
+
+	/**
+	 * Posts each body, the way an Elasticsearch client would. Threadsafe, since every body has its own connection
+	 */
+	private static final class HttpBulkSink implements BulkSink {
+		private final URL url;
+
+		HttpBulkSink(URL url) {
+			this.url = url;
+		}
+
+		@Override
+		public void flush(byte[] body, int length, int documentCount) throws IOException {
+			HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+			connection.setRequestMethod("POST");
+			connection.setDoOutput(true);
+			connection.setFixedLengthStreamingMode(length);
+			connection.setRequestProperty("Content-Type", "application/x-ndjson");
+			try (OutputStream out = connection.getOutputStream()) {
+				out.write(body, 0, length);
+			}
+			if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+				throw new IOException("Bulk request failed with " + connection.getResponseCode());
+			}
+			drain(connection.getInputStream());
+		}
+	}
+
+	/**
+	 * Reads the body, waits for the simulated round trip and answers like a successful _bulk request
+	 */
+	private static final class StubBulkHandler implements HttpHandler {
+		private final int latencyMillis;
+
+		StubBulkHandler(int latencyMillis) {
+			this.latencyMillis = latencyMillis;
+		}
+
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			drain(exchange.getRequestBody());
+			if (latencyMillis > 0) {
+				try {
+					Thread.sleep(latencyMillis);
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, RESPONSE.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(RESPONSE);
+			}
+		}
+	}
+
+	private static void drain(InputStream in) throws IOException {
+		byte[] buffer = new byte[8192];
+		try {
+			while (in.read(buffer) >= 0) {
+				// discard
+			}
+		} finally {
+			in.close();
+		}
+	}
+}
@@ -0,0 +1,605 @@
+/*
+ * AbstractLucesConverter.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Fieldable;
+import org.apache.lucene.document.NumericField;
+import org.apache.lucene.util.Version;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Conversion of Lucene documents against a {@link LucesMapping}. Each conversion reads the current mapping once, so
+ * subclasses only decide where the mapping comes from.
+ */
+abstract class AbstractLucesConverter implements LucesConverter {
+	private static final Logger log = LoggerFactory.getLogger(AbstractLucesConverter.class);
+
+	/** Marks the last field of a name in {@link #linkRepeatedFields(List, ConversionContext)} */
+	private static final int LAST = ObjectMembers.LAST;
+	/** Marks a skipped field, or a repeated field that has already been written as part of its array */
+	private static final int SEEN = ObjectMembers.SEEN;
+
+	private final Gson compactGson;
+	private final Gson prettyGson;
+	private final UnmappedFields unmappedFields = new UnmappedFields();
+	private volatile ConversionListener listener;
+	private volatile FieldProjection projection;
+	private volatile ErrorHandling errorHandling = ErrorHandling.FAIL;
+
+	AbstractLucesConverter(Version version) {
+		if (!(version == Version.LUCENE_36)) {
+			throw new UnsupportedOperationException("This library does not support Lucene version " + version.name());
+		}
+		// built once, since every Gson instance builds its own adapter factories and reflection caches
+		compactGson = gsonBuilder().create();
+		prettyGson = gsonBuilder().setPrettyPrinting().create();
+	}
+
+	private GsonBuilder gsonBuilder() {
+		return new GsonBuilder().registerTypeAdapter(Document.class, new DocumentTypeAdapter());
+	}
+
+	/**
+	 * @return the mapping to use for the next conversion
+	 */
+	abstract LucesMapping currentMapping();
+
+	/**
+	 * @return the mapping to convert the document with, by default the current mapping
+	 */
+	LucesMapping currentMapping(Document doc) {
+		return currentMapping();
+	}
+
+	@Override
+	public UnmappedFields getUnmappedFields() {
+		return unmappedFields;
+	}
+
+	@Override
+	public LucesConverter conversionListener(ConversionListener listener) {
+		this.listener = listener;
+		return this;
+	}
+
+	@Override
+	public LucesConverter projection(FieldProjection projection) {
+		this.projection = projection;
+		return this;
+	}
+
+	@Override
+	public LucesConverter errorHandling(ErrorHandling errorHandling) {
+		if (null == errorHandling) {
+			throw new IllegalArgumentException("Error handling cannot be null");
+		}
+		if (errorHandling.getPolicy() == ErrorPolicy.DEAD_LETTER && null == errorHandling.getSink()) {
+			throw new IllegalArgumentException("Dead lettering needs an error sink");
+		}
+		this.errorHandling = errorHandling;
+		return this;
+	}
+
+	/**
+	 * @return the listener, or null when conversions are not instrumented
+	 */
+	ConversionListener getConversionListener() {
+		return listener;
+	}
+
+	@Override
+	public Gson getGson(boolean setPrettyPrint) {
+		return setPrettyPrint ? prettyGson : compactGson;
+	}
+
+	@Override
+	public String documentToJSONStringified(Document doc, boolean setPrettyPrint) {
+		ConversionContext context = ConversionContext.acquire();
+		try {
+			StringWriter out = context.writer();
+			JsonWriter writer = newJsonWriter(out, setPrettyPrint);
+			writeDocument(doc, new JsonWriterOutput(writer), context);
+			writer.flush();
+			return out.toString();
+		} catch (IOException ex) {
+			// a StringWriter never throws
+			throw new IllegalStateException(ex);
+		} finally {
+			context.release();
+		}
+	}
+
+	@Override
+	public void writeJSON(Document doc, Writer out, boolean setPrettyPrint) throws IOException {
+		JsonWriter writer = newJsonWriter(out, setPrettyPrint);
+		writeJSON(doc, writer);
+		writer.flush();
+	}
+
+	@Override
+	public void writeJSON(Document doc, OutputStream out, boolean setPrettyPrint) throws IOException {
+		if (setPrettyPrint) {
+			writeJSON(doc, new OutputStreamWriter(out, StandardCharsets.UTF_8), true);
+		} else {
+			ConversionContext context = ConversionContext.acquire();
+			try {
+				writeJSON(doc, out, context);
+			} finally {
+				context.release();
+			}
+		}
+	}
+
+	@Override
+	public void writeJSON(Document doc, OutputStream out, ConversionContext context) throws IOException {
+		Utf8JsonOutput json = context.output();
+		writeDocument(doc, json, context);
+		json.writeTo(out);
+		out.flush();
+		ConversionListener listener = this.listener;
+		if (listener != null) {
+			listener.bytesWritten(json.size());
+		}
+		context.trim();
+	}
+
+	@Override
+	public void writeCBOR(Document doc, OutputStream out) throws IOException {
+		ConversionContext context = ConversionContext.acquire();
+		try {
+			CborOutput cbor = context.cborOutput();
+			writeDocument(doc, cbor, context);
+			cbor.writeTo(out);
+			out.flush();
+			ConversionListener listener = this.listener;
+			if (listener != null) {
+				listener.bytesWritten(cbor.size());
+			}
+		} finally {
+			context.release();
+		}
+	}
+
+	@Override
+	public void writeJSON(Document doc, JsonWriter writer) throws IOException {
+		writeDocument(doc, new JsonWriterOutput(writer));
+	}
+
+	/**
+	 * Converts the document with the current mapping. Repeated field names are written as one array at the position
+	 * of their first occurrence, and each name is looked up in the mapping only once. With nested objects, the fields
+	 * of an object are written into it at the position of its first field.
+	 *
+	 * @return false if the document was handed to the {@link ErrorSink} as a dead letter, in which case its output
+	 *         must be discarded
+	 */
+	boolean writeDocument(Document doc, DocumentOutput out) throws IOException {
+		ConversionContext context = ConversionContext.acquire();
+		try {
+			return writeDocument(doc, out, context);
+		} finally {
+			context.release();
+		}
+	}
+
+	/**
+	 * @param context the scratch space for the conversion
+	 * @see #writeDocument(Document, DocumentOutput)
+	 */
+	boolean writeDocument(Document doc, DocumentOutput out, ConversionContext context) throws IOException {
+		ConversionListener listener = this.listener;
+		long start = listener == null ? 0 : System.nanoTime();
+		LucesMapping mapping = currentMapping(doc);
+		List<Fieldable> docFields = doc.getFields();
+		ErrorHandling errorHandling = this.errorHandling;
+		context.beginDocument(errorHandling, docFields);
+		try {
+			writeFields(out, mapping, docFields, context, listener);
+			List<ConversionError> errors = context.errors();
+			if (!errors.isEmpty()) {
+				errorHandling.getSink().deadLetter(doc, new ArrayList<ConversionError>(errors));
+				return false;
+			}
+		} finally {
+			context.endDocument();
+		}
+		if (listener != null) {
+			listener.documentConverted(System.nanoTime() - start);
+		}
+		return true;
+	}
+
+	private void writeFields(DocumentOutput out, LucesMapping mapping, List<Fieldable> docFields,
+			ConversionContext context, ConversionListener listener) throws IOException {
+		int count = docFields.size();
+		boolean typed = mapping.isMapped();
+		int[] next = linkRepeatedFields(docFields, context);
+		FieldProjection projection = this.projection;
+		if (projection != null) {
+			skipFields(docFields, count, next, projection);
+		}
+		out.beginObject();
+		if (typed && mapping.isNestedObjects()) {
+			ObjectMembers members = context.members();
+			members.build(mapping, docFields, next, count);
+			writeMembers(out, mapping, members, 0, docFields, next, context, listener);
+		} else {
+			for (int i = 0; i < count; ++i) {
+				if (next[i] == SEEN) {
+					continue;
+				}
+				FieldDescriptor descriptor = typed ? mapping.getField(docFields.get(i).name()) : null;
+				writeField(out, mapping, typed, descriptor, descriptor == null ? null : descriptor.getKey(), docFields,
+						next, i, context, listener);
+			}
+		}
+		out.endObject();
+	}
+
+	/**
+	 * Writes the members of an object, its own fields and nested objects, in the order of their first occurrence
+	 */
+	private void writeMembers(DocumentOutput out, LucesMapping mapping, ObjectMembers members, int node,
+			List<Fieldable> docFields, int[] next, ConversionContext context, ConversionListener listener)
+			throws IOException {
+		for (int entry = members.first[node]; entry != LAST; entry = members.following[entry]) {
+			int member = members.member[entry];
+			if (member >= 0) {
+				FieldDescriptor descriptor = members.descriptors[member];
+				writeField(out, mapping, true, descriptor, descriptor == null ? null : descriptor.getMemberKey(),
+						docFields, next, member, context, listener);
+			} else {
+				int child = ~member;
+				out.name(mapping.getPathNodes()[child].getKey());
+				out.beginObject();
+				writeMembers(out, mapping, members, child, docFields, next, context, listener);
+				out.endObject();
+			}
+		}
+	}
+
+	/**
+	 * Writes a field, and all following fields of the same name as one array
+	 *
+	 * @param key the key to write the field with, or null to write it with its own name
+	 */
+	private void writeField(DocumentOutput out, LucesMapping mapping, boolean typed, FieldDescriptor descriptor,
+			JsonKey key, List<Fieldable> docFields, int[] next, int index, ConversionContext context,
+			ConversionListener listener) throws IOException {
+		Fieldable field = docFields.get(index);
+		if (key != null) {
+			out.name(key);
+		} else {
+			out.name(field.name());
+		}
+		if (next[index] == LAST) {
+			writeValue(out, mapping, typed, descriptor, field, false, context, listener);
+		} else {
+			out.beginArray();
+			for (int j = index; j != LAST; ) {
+				field = docFields.get(j);
+				writeValue(out, mapping, typed, descriptor, field, true, context, listener);
+				int following = next[j];
+				next[j] = SEEN;
+				j = following;
+			}
+			out.endArray();
+		}
+	}
+
+	@Override
+	public int documentsToBulk(Iterable<Document> docs, BulkOptions options, BulkSink sink) throws IOException {
+		return documentsToBulk(docs.iterator(), options, sink);
+	}
+
+	@Override
+	public int documentsToBulk(Iterator<Document> docs, BulkOptions options, BulkSink sink) throws IOException {
+		BulkWriter bulk = new BulkWriter(this, options, sink);
+		while (docs.hasNext()) {
+			bulk.add(docs.next());
+		}
+		return bulk.finish();
+	}
+
+	/**
+	 * @return a JSON writer with the same settings as a default Gson instance
+	 */
+	static JsonWriter newJsonWriter(Writer out, boolean setPrettyPrint) {
+		JsonWriter writer = new JsonWriter(out);
+		writer.setHtmlSafe(true);
+		writer.setSerializeNulls(false);
+		if (setPrettyPrint) {
+			writer.setIndent("  ");
+		}
+		return writer;
+	}
+
+	/**
+	 * Numbers of {@link NumericField}s are converted as they are, and binary fields to base64 strings
+	 */
+	@Override
+	public Object getFieldValue(Fieldable field) {
+		if (field.isBinary()) {
+			return Base64Encoder.encode(field.getBinaryValue(), field.getBinaryOffset(), field.getBinaryLength());
+		} else if (field instanceof NumericField) {
+			return getFieldValue(currentMapping(), field.name(), null, ((NumericField) field).getNumericValue());
+		}
+		return getFieldValue(field.name(), field.stringValue());
+	}
+
+	@Override
+	public Object getFieldValue(String name, String value) {
+		return getFieldValue(currentMapping(), name, value, null);
+	}
+
+	/**
+	 * @param number the number of a numeric field, or null to convert the string value
+	 */
+	private Object getFieldValue(LucesMapping mapping, String name, String value, Number number) {
+		if (!mapping.isMapped() && mapping.isErrorIfMappingIsNull()) {
+			throw new IllegalStateException(String.format("Mapping is null, but required. [name = %1$s, value = %2$s]",
+					name, number == null ? value : number));
+		}
+		FieldDescriptor descriptor = mapping.getField(name);
+		if (descriptor == null) {
+			unmappedFields.record(name, number == null ? value : String.valueOf(number));
+			descriptor = mapping.getUnmappedField();
+		}
+		ConversionListener listener = this.listener;
+		ErrorHandling errorHandling = this.errorHandling;
+		if (errorHandling.getPolicy() != ErrorPolicy.FAIL) {
+			return convertLenient(descriptor, name, value, number, errorHandling, listener);
+		}
+		if (listener == null) {
+			return number == null ? descriptor.convert(value) : descriptor.convert(number);
+		}
+		Object converted;
+		try {
+			converted = number == null ? descriptor.convert(value) : descriptor.convert(number);
+		} catch (RuntimeException ex) {
+			listener.valueFailed(name, descriptor.getType(), number == null ? value : String.valueOf(number), ex);
+			throw ex;
+		}
+		listener.valueConverted(name, descriptor.getType());
+		return converted;
+	}
+
+	/**
+	 * Converts a single value under an {@link ErrorPolicy} other than {@link ErrorPolicy#FAIL}. Without a document,
+	 * a dead letter is handled like a skipped field.
+	 */
+	private static Object convertLenient(FieldDescriptor descriptor, String name, String value, Number number,
+			ErrorHandling errorHandling, ConversionListener listener) {
+		String message = null;
+		RuntimeException error = null;
+		Object converted = null;
+		if (number == null && !descriptor.isValid(value)) {
+			message = descriptor.invalidValueMessage(value);
+		} else {
+			try {
+				converted = number == null ? descriptor.convert(value) : descriptor.convert(number);
+			} catch (RuntimeException ex) {
+				message = ex.getMessage();
+				error = ex;
+			}
+		}
+		if (message == null) {
+			if (listener != null) {
+				listener.valueConverted(name, descriptor.getType());
+			}
+			return converted;
+		}
+		String text = number == null ? value : String.valueOf(number);
+		if (listener != null) {
+			listener.valueFailed(name, descriptor.getType(), text, error);
+		}
+		if (errorHandling.getSink() != null) {
+			errorHandling.getSink().invalidValue(new ConversionError(name, descriptor.getType(), text, null, message));
+		}
+		if (errorHandling.getPolicy() == ErrorPolicy.DEFAULT) {
+			Object defaultValue = descriptor.getType().defaultValue();
+			return defaultValue == null ? JsonNull.INSTANCE : defaultValue;
+		}
+		return JsonNull.INSTANCE;
+	}
+
+	@Override
+	public JsonElement documentToJSON(Document doc) {
+		return compactGson.toJsonTree(doc);
+	}
+
+	/**
+	 * Chains each field to the next field of the same name, so repeated fields can be written as one array at the
+	 * position of their first occurrence, the way a map of field names to values would group them.
+	 *
+	 * @return per field index, the index of the next field with that name, or {@link #LAST}. The array comes from the
+	 *         context and may be longer than the document
+	 */
+	private static int[] linkRepeatedFields(List<Fieldable> docFields, ConversionContext context) {
+		int count = docFields.size();
+		return context.groups().link(docFields, count, context.next(count));
+	}
+
+	/**
+	 * Marks all fields of the names that aren't in the projection as {@link #SEEN}, so they're never read
+	 */
+	private static void skipFields(List<Fieldable> docFields, int count, int[] next, FieldProjection projection) {
+		for (int i = 0; i < count; ++i) {
+			// later fields of a name were already marked at its first field
+			if (next[i] != SEEN && !projection.isIncluded(docFields.get(i).name())) {
+				for (int j = i; j != LAST; ) {
+					int following = next[j];
+					next[j] = SEEN;
+					j = following;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the converted value of a field. Binary fields are written as base64, and numbers of
+	 * {@link NumericField}s without a string round trip, whatever the mapping. Invalid values are handled by the
+	 * {@link ErrorPolicy} of the context.
+	 *
+	 * @param inArray whether the value is an element of an array, rather than the value of a name
+	 */
+	private void writeValue(DocumentOutput out, LucesMapping mapping, boolean typed, FieldDescriptor descriptor,
+			Fieldable field, boolean inArray, ConversionContext context, ConversionListener listener)
+			throws IOException {
+		if (field.isBinary()) {
+			out.binaryValue(field.getBinaryValue(), field.getBinaryOffset(), field.getBinaryLength());
+			if (listener != null) {
+				listener.valueConverted(field.name(), ParseType.BINARY);
+			}
+			return;
+		}
+		if (descriptor == null) {
+			if (!typed) {
+				out.value(field.stringValue());
+				if (listener != null) {
+					listener.valueConverted(field.name(), ParseType.STRING);
+				}
+				return;
+			}
+			unmappedFields.record(field.name(), field.stringValue());
+			descriptor = mapping.getUnmappedField();
+		}
+		ErrorHandling errorHandling = context.errorHandling();
+		if (errorHandling.getPolicy() != ErrorPolicy.FAIL) {
+			writeLenient(out, descriptor, field, inArray, context, errorHandling, listener);
+			return;
+		}
+		if (listener == null) {
+			write(descriptor, field, out);
+			return;
+		}
+		try {
+			write(descriptor, field, out);
+		} catch (RuntimeException ex) {
+			listener.valueFailed(field.name(), descriptor.getType(), field.stringValue(), ex);
+			throw ex;
+		}
+		listener.valueConverted(field.name(), descriptor.getType());
+	}
+
+	/**
+	 * Writes a value under an {@link ErrorPolicy} other than {@link ErrorPolicy#FAIL}. Numeric strings are checked
+	 * before they're written, so the common invalid values cost no exception.
+	 */
+	private static void writeLenient(DocumentOutput out, FieldDescriptor descriptor, Fieldable field,
+			boolean inArray, ConversionContext context, ErrorHandling errorHandling, ConversionListener listener)
+			throws IOException {
+		String message = null;
+		RuntimeException error = null;
+		if (!(field instanceof NumericField) && !descriptor.isValid(field.stringValue())) {
+			message = descriptor.invalidValueMessage(field.stringValue());
+		} else {
+			try {
+				write(descriptor, field, out);
+			} catch (RuntimeException ex) {
+				// a value that passed the check, e.g. a date, failed while it was written. Nothing was written yet
+				message = ex.getMessage();
+				error = ex;
+			}
+		}
+		if (message == null) {
+			if (listener != null) {
+				listener.valueConverted(field.name(), descriptor.getType());
+			}
+			return;
+		}
+		String value = field instanceof NumericField
+				? String.valueOf(((NumericField) field).getNumericValue())
+				: field.stringValue();
+		if (listener != null) {
+			listener.valueFailed(field.name(), descriptor.getType(), value, error);
+		}
+		ConversionError conversionError = new ConversionError(field.name(), descriptor.getType(), value,
+				context.documentId(), message);
+		ErrorPolicy policy = errorHandling.getPolicy();
+		if (policy == ErrorPolicy.DEAD_LETTER) {
+			context.errors().add(conversionError);
+		} else if (errorHandling.getSink() != null) {
+			errorHandling.getSink().invalidValue(conversionError);
+		}
+		switch (policy) {
+			case NULL:
+				out.nullValue();
+				break;
+			case DEFAULT:
+				descriptor.getType().writeDefault(out);
+				break;
+			default:
+				// a null value drops the name of a single value, and an array just goes without the element
+				if (!inArray) {
+					out.nullValue();
+				}
+				break;
+		}
+	}
+
+	private static void write(FieldDescriptor descriptor, Fieldable field, DocumentOutput out) throws IOException {
+		if (field instanceof NumericField) {
+			descriptor.write(((NumericField) field).getNumericValue(), out);
+		} else {
+			descriptor.write(field.stringValue(), out);
+		}
+	}
+
+	/**
+	 * Writes documents through the streaming conversion, so Gson needs no reflective lookups for the field values
+	 */
+	private final class DocumentTypeAdapter extends TypeAdapter<Document> {
+
+		@Override
+		public void write(JsonWriter out, Document doc) throws IOException {
+			if (doc == null) {
+				out.nullValue();
+			} else {
+				writeJSON(doc, out);
+			}
+		}
+
+		@Override
+		public Document read(JsonReader in) {
+			throw new UnsupportedOperationException("Lucene documents cannot be read from JSON");
+		}
+	}
+}
@@ -0,0 +1,289 @@
+/*
+ * AsyncLuces.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import org.apache.lucene.document.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Converts documents asynchronously on an executor, in batches, and completes {@link CompletableFuture}s with the
+ * results. Bulk conversion pulls documents from an iterator only while fewer than a bounded number of batches are
+ * converting or waiting for the sink, so a slow sink holds back reading and memory stays bounded.
+ * <p>
+ * The converter is called from the executor's threads, so it must be threadsafe, e.g. a {@link ConcurrentLuces}. The
+ * sink is called by one thread at a time, in input order unless that is turned off.
+ */
+public class AsyncLuces {
+	private static final Logger log = LoggerFactory.getLogger(AsyncLuces.class);
+
+	/** Default number of documents converted by one task */
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+
+	private final LucesConverter converter;
+	private final Executor executor;
+	private int batchSize = DEFAULT_BATCH_SIZE;
+	private int maxPendingBatches = 2 * Runtime.getRuntime().availableProcessors();
+	private boolean ordered = true;
+
+	/**
+	 * @param converter a threadsafe converter
+	 * @param executor  the executor to convert on
+	 */
+	public AsyncLuces(LucesConverter converter, Executor executor) {
+		this.converter = converter;
+		this.executor = executor;
+	}
+
+	/**
+	 * @param batchSize number of documents converted by one task. Each batch of a bulk conversion ends with a
+	 *                  partial bulk body, so this is best kept a multiple of the document limit of the bulk options
+	 * @return this
+	 */
+	public AsyncLuces batchSize(int batchSize) {
+		if (batchSize <= 0) {
+			throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+		}
+		this.batchSize = batchSize;
+		return this;
+	}
+
+	/**
+	 * @param maxPendingBatches number of batches of a bulk conversion that may be read but not yet handed to the
+	 *                          sink. Defaults to twice the number of available processors
+	 * @return this
+	 */
+	public AsyncLuces maxPendingBatches(int maxPendingBatches) {
+		if (maxPendingBatches <= 0) {
+			throw new IllegalArgumentException("Pending batch limit must be positive: " + maxPendingBatches);
+		}
+		this.maxPendingBatches = maxPendingBatches;
+		return this;
+	}
+
+	/**
+	 * @param ordered true to hand bulk bodies to the sink in the order of the documents, which is the default. False
+	 *                hands them over as soon as they're converted, so a slow batch doesn't hold back the others
+	 * @return this
+	 */
+	public AsyncLuces ordered(boolean ordered) {
+		this.ordered = ordered;
+		return this;
+	}
+
+	/**
+	 * Converts each document to UTF-8 JSON
+	 *
+	 * @param docs the documents
+	 * @return a future of one buffer per document, in the order of the documents, which fails with the first error
+	 */
+	public CompletableFuture<List<ByteBuffer>> writeJSON(List<Document> docs) {
+		List<CompletableFuture<List<ByteBuffer>>> batches = new ArrayList<>();
+		for (int start = 0; start < docs.size(); start += batchSize) {
+			final List<Document> batch = docs.subList(start, Math.min(start + batchSize, docs.size()));
+			batches.add(CompletableFuture.supplyAsync(() -> toJSON(batch), executor));
+		}
+		return CompletableFuture.allOf(batches.toArray(new CompletableFuture<?>[batches.size()])).thenApply(done -> {
+			List<ByteBuffer> json = new ArrayList<>(docs.size());
+			for (CompletableFuture<List<ByteBuffer>> batch : batches) {
+				json.addAll(batch.join());
+			}
+			return json;
+		});
+	}
+
+	/**
+	 * Converts the documents into _bulk bodies for the sink, like
+	 * {@link LucesConverter#documentsToBulk(Iterator, BulkOptions, BulkSink)}. Documents are read from the iterator
+	 * on the calling thread and the executor's threads, one thread at a time.
+	 *
+	 * @param docs    the documents
+	 * @param options the bulk index settings and limits
+	 * @param sink    the sink for the bulk bodies, which needn't be threadsafe
+	 * @return a future of the number of documents written, which fails with the first error of the iterator, the
+	 *         conversion or the sink
+	 */
+	public CompletableFuture<Integer> documentsToBulk(Iterator<Document> docs, BulkOptions options, BulkSink sink) {
+		BulkTransfer transfer = new BulkTransfer(docs, options, sink);
+		transfer.pump();
+		return transfer.result;
+	}
+
+	private List<ByteBuffer> toJSON(List<Document> batch) {
+		ConversionContext context = new ConversionContext();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		List<ByteBuffer> json = new ArrayList<>(batch.size());
+		try {
+			for (Document doc : batch) {
+				out.reset();
+				converter.writeJSON(doc, out, context);
+				json.add(ByteBuffer.wrap(out.toByteArray()));
+			}
+		} catch (IOException ex) {
+			// a ByteArrayOutputStream never throws
+			throw new IllegalStateException(ex);
+		}
+		return json;
+	}
+
+	/**
+	 * A converted bulk body, copied out of the reused buffer
+	 */
+	private static final class Body {
+		final byte[] bytes;
+		final int documents;
+
+		Body(byte[] bytes, int documents) {
+			this.bytes = bytes;
+			this.documents = documents;
+		}
+	}
+
+	/**
+	 * The state of one bulk conversion. Batches are numbered as they're read, and their bodies kept until all
+	 * earlier batches were handed to the sink.
+	 */
+	private final class BulkTransfer {
+		final Iterator<Document> docs;
+		final BulkOptions options;
+		final BulkSink sink;
+		final CompletableFuture<Integer> result = new CompletableFuture<>();
+		// guarded by this
+		final Map<Long, List<Body>> converted = new HashMap<>();
+		long nextBatch;
+		long nextDelivery;
+		int pending;
+		int total;
+		boolean pumping;
+
+		BulkTransfer(Iterator<Document> docs, BulkOptions options, BulkSink sink) {
+			this.docs = docs;
+			this.options = options;
+			this.sink = sink;
+		}
+
+		/**
+		 * Reads and submits batches while there is room, and completes the result once all are written
+		 */
+		synchronized void pump() {
+			if (result.isDone()) {
+				return;
+			}
+			pumping = true;
+			try {
+				while (pending < maxPendingBatches && docs.hasNext()) {
+					final List<Document> batch = new ArrayList<>(Math.min(batchSize, 1024));
+					while (batch.size() < batchSize && docs.hasNext()) {
+						batch.add(docs.next());
+					}
+					final long number = nextBatch++;
+					++pending;
+					// a direct executor completes the batch right here, which frees its slot for the next one
+					CompletableFuture.supplyAsync(() -> toBodies(batch), executor)
+							.whenComplete((bodies, error) -> completed(number, bodies, error));
+				}
+				if (pending == 0 && !result.isDone()) {
+					if (log.isDebugEnabled()) {
+						log.debug("Converted " + total + " documents in " + nextBatch + " batches");
+					}
+					result.complete(total);
+				}
+			} catch (Throwable ex) {
+				result.completeExceptionally(ex);
+			} finally {
+				pumping = false;
+			}
+		}
+
+		synchronized void completed(long number, List<Body> bodies, Throwable error) {
+			if (result.isDone()) {
+				return;
+			}
+			if (error != null) {
+				result.completeExceptionally(error instanceof CompletionException ? error.getCause() : error);
+				return;
+			}
+			try {
+				if (ordered) {
+					converted.put(number, bodies);
+					for (List<Body> next; (next = converted.remove(nextDelivery)) != null; ++nextDelivery) {
+						deliver(next);
+					}
+				} else {
+					deliver(bodies);
+				}
+			} catch (Throwable ex) {
+				// nothing would see it thrown from a completion callback
+				result.completeExceptionally(ex);
+				return;
+			}
+			if (!pumping) {
+				pump();
+			}
+		}
+
+		private void deliver(List<Body> bodies) throws IOException {
+			for (Body body : bodies) {
+				sink.flush(body.bytes, body.bytes.length, body.documents);
+			}
+			--pending;
+		}
+
+		/**
+		 * Converts a batch with its own bulk writer, and counts its documents
+		 */
+		private List<Body> toBodies(List<Document> batch) {
+			final List<Body> bodies = new ArrayList<>();
+			BulkWriter bulk = new BulkWriter(converter, options, new BulkSink() {
+				@Override
+				public void flush(byte[] body, int length, int documentCount) {
+					bodies.add(new Body(Arrays.copyOf(body, length), documentCount));
+				}
+			});
+			int count;
+			try {
+				for (Document doc : batch) {
+					bulk.add(doc);
+				}
+				count = bulk.finish();
+			} catch (IOException ex) {
+				// the sink above never throws
+				throw new IllegalStateException(ex);
+			}
+			synchronized (this) {
+				total += count;
+			}
+			return bodies;
+		}
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * Base64Encoder.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Standard, padded base64 encoding (RFC 4648), which is what Elasticsearch expects for binary fields. Encodes into a
+ * caller's byte array at any offset, so binary values go straight into an output buffer without allocating, which
+java.util.Base64 can't do for a range of the source or an offset in the destination.
+ */
+final class Base64Encoder {
+
+	private static final byte[] ALPHABET =
+			"ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".getBytes(StandardCharsets.US_ASCII);
+
+	private Base64Encoder() {
+	}
+
+	/**
+	 * @return the number of characters the encoding of length bytes takes
+	 */
+	static int encodedLength(int length) {
+		return (length + 2) / 3 * 4;
+	}
+
+	/**
+	 * Encodes the bytes into dst, which must have room for {@link #encodedLength(int)} bytes
+	 *
+	 * @return the offset in dst after the encoding
+	 */
+	static int encode(byte[] src, int offset, int length, byte[] dst, int dstOffset) {
+		int end = offset + length;
+		int full = offset + length / 3 * 3;
+		int pos = dstOffset;
+		for (int i = offset; i < full; i += 3) {
+			int bits = (src[i] & 0xff) << 16 | (src[i + 1] & 0xff) << 8 | (src[i + 2] & 0xff);
+			dst[pos++] = ALPHABET[bits >>> 18];
+			dst[pos++] = ALPHABET[(bits >>> 12) & 0x3f];
+			dst[pos++] = ALPHABET[(bits >>> 6) & 0x3f];
+			dst[pos++] = ALPHABET[bits & 0x3f];
+		}
+		if (full < end) {
+			int bits = (src[full] & 0xff) << 16 | (full + 1 < end ? (src[full + 1] & 0xff) << 8 : 0);
+			dst[pos++] = ALPHABET[bits >>> 18];
+			dst[pos++] = ALPHABET[(bits >>> 12) & 0x3f];
+			dst[pos++] = full + 1 < end ? ALPHABET[(bits >>> 6) & 0x3f] : (byte) '=';
+			dst[pos++] = '=';
+		}
+		return pos;
+	}
+
+	static String encode(byte[] src, int offset, int length) {
+		byte[] encoded = new byte[encodedLength(length)];
+		encode(src, offset, length, encoded, 0);
+		return new String(encoded, StandardCharsets.US_ASCII);
+	}
+}
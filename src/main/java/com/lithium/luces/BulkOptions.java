@@ -0,0 +1,114 @@
+/*
+ * BulkOptions.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+/**
+ * Immutable settings for writing documents as Elasticsearch _bulk bodies. The "with" methods return modified copies.
+ */
+public final class BulkOptions {
+
+	/** Default maximum size of one bulk body, 5MB */
+	public static final int DEFAULT_MAX_BYTES = 5 * 1024 * 1024;
+	/** Default maximum number of documents in one bulk body */
+	public static final int DEFAULT_MAX_DOCUMENTS = 1000;
+
+	private final String index;
+	private final String type;
+	private final String idField;
+	private final int maxBytes;
+	private final int maxDocuments;
+
+	private BulkOptions(String index, String type, String idField, int maxBytes, int maxDocuments) {
+		this.index = index;
+		this.type = type;
+		this.idField = idField;
+		this.maxBytes = maxBytes;
+		this.maxDocuments = maxDocuments;
+	}
+
+	/**
+	 * @param index the Elasticsearch index the documents go to
+	 * @return options for the index, without a type or id field and with the default limits
+	 */
+	public static BulkOptions forIndex(String index) {
+		if (null == index) {
+			throw new IllegalArgumentException("Index cannot be null");
+		}
+		return new BulkOptions(index, null, null, DEFAULT_MAX_BYTES, DEFAULT_MAX_DOCUMENTS);
+	}
+
+	/**
+	 * @param type the Elasticsearch type, or null to leave _type out of the action lines
+	 * @return a copy of this with the type set
+	 */
+	public BulkOptions withType(String type) {
+		return new BulkOptions(index, type, idField, maxBytes, maxDocuments);
+	}
+
+	/**
+	 * @param idField the stored field whose value is used as the _id, or null to let Elasticsearch generate ids
+	 * @return a copy of this with the id field set
+	 */
+	public BulkOptions withIdField(String idField) {
+		return new BulkOptions(index, type, idField, maxBytes, maxDocuments);
+	}
+
+	/**
+	 * @param maxBytes the size a body may not exceed, unless a single document is larger
+	 * @return a copy of this with the byte limit set
+	 */
+	public BulkOptions withMaxBytes(int maxBytes) {
+		if (maxBytes <= 0) {
+			throw new IllegalArgumentException("Byte limit must be positive: " + maxBytes);
+		}
+		return new BulkOptions(index, type, idField, maxBytes, maxDocuments);
+	}
+
+	/**
+	 * @param maxDocuments the number of documents after which a body is flushed
+	 * @return a copy of this with the document limit set
+	 */
+	public BulkOptions withMaxDocuments(int maxDocuments) {
+		if (maxDocuments <= 0) {
+			throw new IllegalArgumentException("Document limit must be positive: " + maxDocuments);
+		}
+		return new BulkOptions(index, type, idField, maxBytes, maxDocuments);
+	}
+
+	public String getIndex() {
+		return index;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public String getIdField() {
+		return idField;
+	}
+
+	public int getMaxBytes() {
+		return maxBytes;
+	}
+
+	public int getMaxDocuments() {
+		return maxDocuments;
+	}
+}
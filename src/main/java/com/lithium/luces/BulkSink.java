@@ -0,0 +1,39 @@
+/*
+ * BulkSink.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.io.IOException;
+
+/**
+ * Receives Elasticsearch _bulk request bodies as they fill up
+ */
+public interface BulkSink {
+
+	/**
+	 * Called whenever a chunk of NDJSON reaches its byte or document limit, and once more for the last partial chunk.
+	 * The array is reused for the next chunk, so its contents are only valid during this call.
+	 *
+	 * @param body          the buffer holding the request body, starting at index 0
+	 * @param length        the number of bytes of the body
+	 * @param documentCount the number of documents in the body, counting delete actions as documents
+	 * @throws IOException if the body can't be sent
+	 */
+	void flush(byte[] body, int length, int documentCount) throws IOException;
+}
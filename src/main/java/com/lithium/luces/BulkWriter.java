@@ -0,0 +1,155 @@
+/*
+ * BulkWriter.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import org.apache.lucene.document.Document;
+
+/**
+ * Writes action/metadata and source line pairs for documents, and delete actions by id, into one reusable buffer, and
+ * hands it to a {@link BulkSink} whenever the byte or document limit of the {@link BulkOptions} is reached. A delete
+ * counts as a document towards the limit.
+ */
+final class BulkWriter {
+
+	private static final byte[] ID_KEY = {',', '"', '_', 'i', 'd', '"', ':'};
+	private static final byte[] ACTION_END = {'}', '}', '\n'};
+
+	private final LucesConverter converter;
+	private final BulkOptions options;
+	private final BulkSink sink;
+	private final ConversionListener listener;
+	private final Utf8JsonOutput buffer;
+	/** The encoded action line up to the _id, which is the same for every document */
+	private final byte[] actionPrefix;
+	/** The encoded delete action up to the _id, created with the first delete */
+	private byte[] deletePrefix;
+	private int documents;
+	private int total;
+
+	BulkWriter(LucesConverter converter, BulkOptions options, BulkSink sink) {
+		this.converter = converter;
+		this.options = options;
+		this.sink = sink;
+		listener = converter instanceof AbstractLucesConverter
+				? ((AbstractLucesConverter) converter).getConversionListener()
+				: null;
+		buffer = new Utf8JsonOutput(Math.min(options.getMaxBytes(), 64 * 1024));
+		actionPrefix = encodeActionPrefix("index");
+	}
+
+	private byte[] encodeActionPrefix(String action) {
+		Utf8JsonOutput prefix = new Utf8JsonOutput(128);
+		prefix.beginObject();
+		prefix.name(action);
+		prefix.beginObject();
+		prefix.name("_index");
+		prefix.value(options.getIndex());
+		if (null != options.getType()) {
+			prefix.name("_type");
+			prefix.value(options.getType());
+		}
+		return Arrays.copyOf(prefix.bytes(), prefix.size());
+	}
+
+	/**
+	 * Appends a document, flushing the buffered documents to the sink first if this one pushes the body over the
+	 * byte limit
+	 */
+	void add(Document doc) throws IOException {
+		int mark = buffer.size();
+		buffer.write(actionPrefix);
+		if (null != options.getIdField()) {
+			String id = doc.get(options.getIdField());
+			if (null == id) {
+				throw new NoSuchElementException("Document has no stored " + options.getIdField() + " id field");
+			}
+			buffer.write(ID_KEY);
+			buffer.string(id);
+		}
+		buffer.write(ACTION_END);
+		if (converter instanceof AbstractLucesConverter) {
+			if (!((AbstractLucesConverter) converter).writeDocument(doc, buffer)) {
+				// dead lettered, so neither the action nor the source line is sent
+				buffer.truncate(mark);
+				return;
+			}
+		} else {
+			converter.writeJSON(doc, buffer, false);
+		}
+		buffer.write('\n');
+		++total;
+		added(mark);
+	}
+
+	/**
+	 * Appends a delete action for the document with the id
+	 */
+	void delete(String id) throws IOException {
+		if (deletePrefix == null) {
+			deletePrefix = encodeActionPrefix("delete");
+		}
+		int mark = buffer.size();
+		buffer.write(deletePrefix);
+		buffer.write(ID_KEY);
+		buffer.string(id);
+		buffer.write(ACTION_END);
+		added(mark);
+	}
+
+	/**
+	 * Counts the action that was appended at the mark, and flushes the body if it is full
+	 */
+	private void added(int mark) throws IOException {
+		if (buffer.size() > options.getMaxBytes() && documents > 0) {
+			flush(mark);
+			buffer.moveToStart(mark);
+		}
+		++documents;
+		if (documents >= options.getMaxDocuments() || buffer.size() >= options.getMaxBytes()) {
+			flush(buffer.size());
+			buffer.reset();
+		}
+	}
+
+	/**
+	 * Flushes the last partial body
+	 *
+	 * @return the number of documents written in total, without deletes
+	 */
+	int finish() throws IOException {
+		if (documents > 0) {
+			flush(buffer.size());
+			buffer.reset();
+		}
+		return total;
+	}
+
+	private void flush(int length) throws IOException {
+		sink.flush(buffer.bytes(), length, documents);
+		documents = 0;
+		if (listener != null) {
+			listener.bytesWritten(length);
+		}
+	}
+}
@@ -0,0 +1,303 @@
+/*
+ * CborOutput.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Writes a document as CBOR (RFC 7049), which Elasticsearch accepts as a binary content type, into a growable byte
+ * array. Objects and arrays are written with indefinite lengths, so nothing has to be counted up front. Float values
+ * keep their single precision, binary fields are written as byte strings rather than base64, and compiled fields are
+ * written with their pre-encoded keys. Null members are left out, like in the JSON outputs.
+ */
+final class CborOutput implements DocumentOutput {
+
+	private static final int MAJOR_UNSIGNED = 0;
+	private static final int MAJOR_NEGATIVE = 1 << 5;
+	private static final int MAJOR_BYTES = 2 << 5;
+	private static final int MAJOR_TEXT = 3 << 5;
+	private static final int INDEFINITE_ARRAY = 0x9f;
+	private static final int INDEFINITE_MAP = 0xbf;
+	private static final int FALSE = 0xf4;
+	private static final int TRUE = 0xf5;
+	private static final int NULL = 0xf6;
+	private static final int FLOAT = 0xfa;
+	private static final int DOUBLE = 0xfb;
+	private static final int BREAK = 0xff;
+	/** What a UTF-8 encoder writes for an unpaired surrogate */
+	private static final byte MALFORMED = '?';
+
+	private byte[] buf;
+	private int count;
+	private JsonKey deferredKey;
+	private String deferredName;
+
+	CborOutput(int initialCapacity) {
+		buf = new byte[initialCapacity];
+	}
+
+	/**
+	 * @return the name as a CBOR text string
+	 */
+	static byte[] encodeKey(String name) {
+		CborOutput key = new CborOutput(name.length() + 9);
+		key.text(name);
+		return Arrays.copyOf(key.buf, key.count);
+	}
+
+	@Override
+	public void beginObject() {
+		beforeValue();
+		write(INDEFINITE_MAP);
+	}
+
+	@Override
+	public void endObject() {
+		write(BREAK);
+	}
+
+	@Override
+	public void beginArray() {
+		beforeValue();
+		write(INDEFINITE_ARRAY);
+	}
+
+	@Override
+	public void endArray() {
+		write(BREAK);
+	}
+
+	@Override
+	public void name(JsonKey key) {
+		deferredKey = key;
+	}
+
+	@Override
+	public void name(String name) {
+		deferredName = name;
+	}
+
+	@Override
+	public void nullValue() {
+		if (deferredKey != null || deferredName != null) {
+			// null members are left out
+			deferredKey = null;
+			deferredName = null;
+			return;
+		}
+		write(NULL);
+	}
+
+	@Override
+	public void value(long value) {
+		beforeValue();
+		if (value < 0) {
+			// -1 - n, which is the complement
+			header(MAJOR_NEGATIVE, ~value);
+		} else {
+			header(MAJOR_UNSIGNED, value);
+		}
+	}
+
+	@Override
+	public void value(double value) {
+		if (Double.isNaN(value) || Double.isInfinite(value)) {
+			throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+		}
+		beforeValue();
+		ensureCapacity(9);
+		buf[count++] = (byte) DOUBLE;
+		writeBigEndian(Double.doubleToLongBits(value), 8);
+	}
+
+	@Override
+	public void value(float value) {
+		if (Float.isNaN(value) || Float.isInfinite(value)) {
+			throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+		}
+		beforeValue();
+		ensureCapacity(5);
+		buf[count++] = (byte) FLOAT;
+		writeBigEndian(Float.floatToIntBits(value), 4);
+	}
+
+	@Override
+	public void value(boolean value) {
+		beforeValue();
+		write(value ? TRUE : FALSE);
+	}
+
+	@Override
+	public void value(String value) {
+		if (value == null) {
+			nullValue();
+			return;
+		}
+		beforeValue();
+		text(value);
+	}
+
+	@Override
+	public void binaryValue(byte[] bytes, int offset, int length) {
+		beforeValue();
+		header(MAJOR_BYTES, length);
+		ensureCapacity(length);
+		System.arraycopy(bytes, offset, buf, count, length);
+		count += length;
+	}
+
+	/**
+	 * @return the backing array, valid up to {@link #size()}
+	 */
+	byte[] bytes() {
+		return buf;
+	}
+
+	int size() {
+		return count;
+	}
+
+	/**
+	 * @return the length of the buffer
+	 */
+	int capacity() {
+		return buf.length;
+	}
+
+	/**
+	 * Empties the buffer, keeping its capacity
+	 */
+	void reset() {
+		count = 0;
+		deferredKey = null;
+		deferredName = null;
+	}
+
+	void writeTo(OutputStream out) throws IOException {
+		out.write(buf, 0, count);
+	}
+
+	/**
+	 * Writes the deferred name if there is one
+	 */
+	private void beforeValue() {
+		if (deferredKey != null) {
+			byte[] key = deferredKey.getCbor();
+			ensureCapacity(key.length);
+			System.arraycopy(key, 0, buf, count, key.length);
+			count += key.length;
+			deferredKey = null;
+		} else if (deferredName != null) {
+			text(deferredName);
+			deferredName = null;
+		}
+	}
+
+	/**
+	 * Writes a text string: the length of its UTF-8 encoding, then the encoding
+	 */
+	private void text(String value) {
+		int length = value.length();
+		int utf8Length = 0;
+		for (int i = 0; i < length; ++i) {
+			char c = value.charAt(i);
+			if (c < 0x80) {
+				++utf8Length;
+			} else if (c < 0x800) {
+				utf8Length += 2;
+			} else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+				utf8Length += 4;
+				++i;
+			} else if (Character.isSurrogate(c)) {
+				++utf8Length;
+			} else {
+				utf8Length += 3;
+			}
+		}
+		header(MAJOR_TEXT, utf8Length);
+		ensureCapacity(utf8Length);
+		for (int i = 0; i < length; ++i) {
+			char c = value.charAt(i);
+			if (c < 0x80) {
+				buf[count++] = (byte) c;
+			} else if (c < 0x800) {
+				buf[count++] = (byte) (0xc0 | (c >> 6));
+				buf[count++] = (byte) (0x80 | (c & 0x3f));
+			} else if (Character.isSurrogate(c)) {
+				if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+					int codePoint = Character.toCodePoint(c, value.charAt(++i));
+					buf[count++] = (byte) (0xf0 | (codePoint >> 18));
+					buf[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+					buf[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+					buf[count++] = (byte) (0x80 | (codePoint & 0x3f));
+				} else {
+					buf[count++] = MALFORMED;
+				}
+			} else {
+				buf[count++] = (byte) (0xe0 | (c >> 12));
+				buf[count++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+				buf[count++] = (byte) (0x80 | (c & 0x3f));
+			}
+		}
+	}
+
+	/**
+	 * Writes the initial byte of a data item with its argument in the shortest form
+	 *
+	 * @param argument the argument, e.g. a length, which is never negative
+	 */
+	private void header(int major, long argument) {
+		ensureCapacity(9);
+		if (argument < 24) {
+			buf[count++] = (byte) (major | argument);
+		} else if (argument <= 0xff) {
+			buf[count++] = (byte) (major | 24);
+			buf[count++] = (byte) argument;
+		} else if (argument <= 0xffff) {
+			buf[count++] = (byte) (major | 25);
+			writeBigEndian(argument, 2);
+		} else if (argument <= 0xffffffffL) {
+			buf[count++] = (byte) (major | 26);
+			writeBigEndian(argument, 4);
+		} else {
+			buf[count++] = (byte) (major | 27);
+			writeBigEndian(argument, 8);
+		}
+	}
+
+	private void writeBigEndian(long value, int bytes) {
+		for (int shift = (bytes - 1) * 8; shift >= 0; shift -= 8) {
+			buf[count++] = (byte) (value >>> shift);
+		}
+	}
+
+	private void write(int b) {
+		ensureCapacity(1);
+		buf[count++] = (byte) b;
+	}
+
+	private void ensureCapacity(int extra) {
+		if (count + extra > buf.length) {
+			buf = Arrays.copyOf(buf, Math.max(buf.length * 2, count + extra));
+		}
+	}
+}
@@ -0,0 +1,192 @@
+/*
+ * CompressingBulkSink.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses every bulk body on its own, as gzip or deflate, and passes it on to another sink, e.g. one that sends it
+ * with the matching Content-Encoding header. {@link Deflater}s and their output buffers are pooled and reused from
+ * body to body, so the compressed array is only valid during the other sink's flush. Threadsafe without locking:
+ * concurrent flushes each take a deflater of their own, and call the other sink at the same time, which must then be
+ * threadsafe too. Closing releases the deflaters' native memory.
+ */
+public class CompressingBulkSink implements BulkSink, Closeable {
+
+	/**
+	 * The compressed formats of HTTP's Content-Encoding
+	 */
+	public enum Encoding {
+		/** RFC 1952 */
+		GZIP("gzip"),
+		/** zlib (RFC 1950), which is what HTTP calls deflate */
+		DEFLATE("deflate");
+
+		private final String contentEncoding;
+
+		Encoding(String contentEncoding) {
+			this.contentEncoding = contentEncoding;
+		}
+
+		/**
+		 * @return the Content-Encoding header value
+		 */
+		public String getContentEncoding() {
+			return contentEncoding;
+		}
+	}
+
+	/** Magic number, deflate method, no flags, no time, no extra flags, unknown OS, like GZIPOutputStream writes */
+	private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+	private static final int GZIP_TRAILER_LENGTH = 8;
+
+	private final BulkSink sink;
+	private final Encoding encoding;
+	private final int level;
+	/** Compressors that no flush is using, at most one per concurrent flush so far */
+	private final Queue<Compressor> idle = new ConcurrentLinkedQueue<>();
+	private volatile boolean closed;
+
+	/**
+	 * @param sink     the sink that receives the compressed bodies
+	 * @param encoding the compressed format
+	 */
+	public CompressingBulkSink(BulkSink sink, Encoding encoding) {
+		this(sink, encoding, Deflater.DEFAULT_COMPRESSION);
+	}
+
+	/**
+	 * @param sink     the sink that receives the compressed bodies
+	 * @param encoding the compressed format
+	 * @param level    the compression level, from {@link Deflater#BEST_SPEED} to {@link Deflater#BEST_COMPRESSION}
+	 */
+	public CompressingBulkSink(BulkSink sink, Encoding encoding, int level) {
+		if (null == sink || null == encoding) {
+			throw new IllegalArgumentException("Sink and encoding cannot be null");
+		}
+		this.sink = sink;
+		this.encoding = encoding;
+		this.level = level;
+		// fails early for an invalid level
+		idle.offer(new Compressor());
+	}
+
+	/**
+	 * @throws IllegalStateException if the sink is closed
+	 */
+	@Override
+	public void flush(byte[] body, int length, int documentCount) throws IOException {
+		if (closed) {
+			throw new IllegalStateException("Sink is closed");
+		}
+		Compressor compressor = idle.poll();
+		if (compressor == null) {
+			compressor = new Compressor();
+		}
+		try {
+			int count = compressor.compress(body, length);
+			sink.flush(compressor.buf, count, documentCount);
+		} finally {
+			idle.offer(compressor);
+			if (closed) {
+				endIdle();
+			}
+		}
+	}
+
+	/**
+	 * @return the compressed format
+	 */
+	public Encoding getEncoding() {
+		return encoding;
+	}
+
+	/**
+	 * Releases the deflaters. Flushes still running release theirs when they're done
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		endIdle();
+	}
+
+	private void endIdle() {
+		for (Compressor compressor; (compressor = idle.poll()) != null; ) {
+			compressor.deflater.end();
+		}
+	}
+
+	/**
+	 * A deflater with its output buffer, used by one flush at a time
+	 */
+	private final class Compressor {
+		final Deflater deflater;
+		final CRC32 crc = new CRC32();
+		byte[] buf = new byte[64 * 1024];
+
+		Compressor() {
+			// gzip wraps raw deflate data in its own header and trailer
+			deflater = new Deflater(level, encoding == Encoding.GZIP);
+		}
+
+		/**
+		 * @return the length of the compressed body in {@link #buf}
+		 */
+		int compress(byte[] body, int length) {
+			int count = 0;
+			if (encoding == Encoding.GZIP) {
+				System.arraycopy(GZIP_HEADER, 0, buf, 0, GZIP_HEADER.length);
+				count = GZIP_HEADER.length;
+				crc.reset();
+				crc.update(body, 0, length);
+			}
+			deflater.reset();
+			deflater.setInput(body, 0, length);
+			deflater.finish();
+			while (!deflater.finished()) {
+				if (count == buf.length) {
+					buf = Arrays.copyOf(buf, buf.length * 2);
+				}
+				count += deflater.deflate(buf, count, buf.length - count);
+			}
+			if (encoding == Encoding.GZIP) {
+				if (count + GZIP_TRAILER_LENGTH > buf.length) {
+					buf = Arrays.copyOf(buf, count + GZIP_TRAILER_LENGTH);
+				}
+				count = writeLittleEndian((int) crc.getValue(), count);
+				count = writeLittleEndian(length, count);
+			}
+			return count;
+		}
+
+		private int writeLittleEndian(int value, int offset) {
+			for (int i = 0; i < 4; ++i) {
+				buf[offset++] = (byte) (value >>> (i * 8));
+			}
+			return offset;
+		}
+	}
+}
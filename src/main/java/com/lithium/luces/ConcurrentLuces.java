@@ -0,0 +1,89 @@
+/*
+ * ConcurrentLuces.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.lucene.util.Version;
+
+/**
+ * A converter that can be shared by any number of threads without locking. It converts against an immutable
+ * {@link LucesMapping}, which can be replaced atomically with {@link #swap(LucesMapping)} while conversions are in
+ * flight: every document is converted entirely with either the old or the new mapping.
+ */
+public class ConcurrentLuces extends AbstractLucesConverter {
+
+	private final AtomicReference<LucesMapping> mapping;
+
+	/**
+	 * @param version the Lucene version, which must be 3.6
+	 * @param mapping the initial mapping
+	 */
+	public ConcurrentLuces(Version version, LucesMapping mapping) {
+		super(version);
+		if (null == mapping) {
+			throw new IllegalArgumentException("Compiled mapping cannot be null");
+		}
+		this.mapping = new AtomicReference<>(mapping);
+	}
+
+	/**
+	 * Atomically publishes a new mapping for all conversions that start after this call
+	 *
+	 * @param newMapping the mapping to use from now on
+	 * @return the previous mapping
+	 */
+	public LucesMapping swap(LucesMapping newMapping) {
+		if (null == newMapping) {
+			throw new IllegalArgumentException("Compiled mapping cannot be null");
+		}
+		return mapping.getAndSet(newMapping);
+	}
+
+	/**
+	 * @return the mapping currently in use
+	 */
+	public LucesMapping getMapping() {
+		return mapping.get();
+	}
+
+	@Override
+	public ConcurrentLuces conversionListener(ConversionListener listener) {
+		super.conversionListener(listener);
+		return this;
+	}
+
+	@Override
+	public ConcurrentLuces projection(FieldProjection projection) {
+		super.projection(projection);
+		return this;
+	}
+
+	@Override
+	public ConcurrentLuces errorHandling(ErrorHandling errorHandling) {
+		super.errorHandling(errorHandling);
+		return this;
+	}
+
+	@Override
+	LucesMapping currentMapping() {
+		return mapping.get();
+	}
+}
@@ -0,0 +1,204 @@
+/*
+ * ConversionContext.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.document.Fieldable;
+
+/**
+ * Scratch space for converting one document at a time: the output buffers, the grouping of repeated fields and the
+ * members of nested objects. Everything is reset and reused from document to document, so in steady state a
+ * conversion allocates next to nothing. Buffers that grew past {@link #MAX_RETAINED_CHARS} for an unusually large
+ * document are dropped again afterwards.
+ * <p>
+ * Converters keep one context per thread for their own use. A context can also be passed to
+ * {@link LucesConverter#writeJSON(org.apache.lucene.document.Document, java.io.OutputStream, ConversionContext)}, e.g.
+ * to keep it with a worker. Not threadsafe: a context must only be used by one conversion at a time.
+ */
+public final class ConversionContext {
+	/** The largest buffer kept for the next document, in bytes, chars or table slots */
+	static final int MAX_RETAINED_CHARS = 1 << 20;
+
+	private static final ThreadLocal<ConversionContext> CURRENT = new ThreadLocal<ConversionContext>() {
+		@Override
+		protected ConversionContext initialValue() {
+			return new ConversionContext();
+		}
+	};
+
+	private Utf8JsonOutput output;
+	private StringWriter writer;
+	private CborOutput cborOutput;
+	private int[] next = new int[16];
+	private FieldGroups groups = new FieldGroups();
+	private ObjectMembers members;
+	private final ArrayList<ConversionError> errors = new ArrayList<ConversionError>();
+	private ErrorHandling errorHandling = ErrorHandling.FAIL;
+	private List<Fieldable> docFields;
+	private boolean inUse;
+
+	public ConversionContext() {
+	}
+
+	/**
+	 * @return the context of the current thread, or a new one if a conversion on this thread is already using it
+	 */
+	static ConversionContext acquire() {
+		ConversionContext context = CURRENT.get();
+		if (context.inUse) {
+			return new ConversionContext();
+		}
+		context.inUse = true;
+		return context;
+	}
+
+	/**
+	 * Hands a context from {@link #acquire()} back after the conversion
+	 */
+	void release() {
+		inUse = false;
+		trim();
+	}
+
+	/**
+	 * Drops buffers that grew too large to keep around
+	 */
+	void trim() {
+		if (output != null && output.capacity() > MAX_RETAINED_CHARS) {
+			output = null;
+		}
+		if (cborOutput != null && cborOutput.capacity() > MAX_RETAINED_CHARS) {
+			cborOutput = null;
+		}
+		if (writer != null && writer.getBuffer().capacity() > MAX_RETAINED_CHARS) {
+			writer = null;
+		}
+		if (groups.capacity() > MAX_RETAINED_CHARS) {
+			groups = new FieldGroups();
+		}
+	}
+
+	/**
+	 * @return the empty UTF-8 output buffer
+	 */
+	Utf8JsonOutput output() {
+		if (output == null) {
+			output = new Utf8JsonOutput(1024);
+		} else {
+			output.reset();
+		}
+		return output;
+	}
+
+	/**
+	 * @return the empty CBOR output buffer
+	 */
+	CborOutput cborOutput() {
+		if (cborOutput == null) {
+			cborOutput = new CborOutput(1024);
+		} else {
+			cborOutput.reset();
+		}
+		return cborOutput;
+	}
+
+	/**
+	 * @return the empty string writer
+	 */
+	StringWriter writer() {
+		if (writer == null) {
+			writer = new StringWriter(1024);
+		} else {
+			writer.getBuffer().setLength(0);
+		}
+		return writer;
+	}
+
+	/**
+	 * @return an array of at least count elements, for the next field of each field of a document
+	 */
+	int[] next(int count) {
+		if (next.length < count) {
+			next = new int[Math.max(count, next.length * 2)];
+		}
+		return next;
+	}
+
+	/**
+	 * @return the table to group repeated fields with
+	 */
+	FieldGroups groups() {
+		return groups;
+	}
+
+	ObjectMembers members() {
+		if (members == null) {
+			members = new ObjectMembers();
+		}
+		return members;
+	}
+
+	/**
+	 * Starts a document, with the error handling to use for all of its values
+	 */
+	void beginDocument(ErrorHandling errorHandling, List<Fieldable> docFields) {
+		this.errorHandling = errorHandling;
+		this.docFields = docFields;
+	}
+
+	/**
+	 * Lets go of the document, and forgets its errors
+	 */
+	void endDocument() {
+		docFields = null;
+		errors.clear();
+	}
+
+	ErrorHandling errorHandling() {
+		return errorHandling;
+	}
+
+	/**
+	 * @return the errors of the current document, collected under {@link ErrorPolicy#DEAD_LETTER}
+	 */
+	List<ConversionError> errors() {
+		return errors;
+	}
+
+	/**
+	 * @return the value of the id field of the current document, or null if there is none
+	 */
+	String documentId() {
+		String idField = errorHandling.getIdField();
+		if (idField == null || docFields == null) {
+			return null;
+		}
+		for (int i = 0, count = docFields.size(); i < count; ++i) {
+			Fieldable field = docFields.get(i);
+			if (idField.equals(field.name()) && !field.isBinary()) {
+				return field.stringValue();
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * ConversionError.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+/**
+ * A field value that could not be converted to its mapped type. Errors are recorded without an exception or stack
+ * trace. Immutable.
+ */
+public final class ConversionError {
+
+	private final String field;
+	private final ParseType type;
+	private final String value;
+	private final String documentId;
+	private final String message;
+
+	ConversionError(String field, ParseType type, String value, String documentId, String message) {
+		this.field = field;
+		this.type = type;
+		this.value = value;
+		this.documentId = documentId;
+		this.message = message;
+	}
+
+	public String getField() {
+		return field;
+	}
+
+	public ParseType getType() {
+		return type;
+	}
+
+	/**
+	 * @return the value as a string, or the string form of the number of a numeric field
+	 */
+	public String getValue() {
+		return value;
+	}
+
+	/**
+	 * @return the value of the id field of the {@link ErrorHandling}, or null if there is none
+	 */
+	public String getDocumentId() {
+		return documentId;
+	}
+
+	/**
+	 * @return what the conversion would have thrown, e.g. {@code Error parsing views field: For input string: "12a"}
+	 */
+	public String getMessage() {
+		return message;
+	}
+
+	@Override
+	public String toString() {
+		return null == documentId ? message : message + " [id = " + documentId + "]";
+	}
+}
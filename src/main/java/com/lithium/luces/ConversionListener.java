@@ -0,0 +1,58 @@
+/*
+ * ConversionListener.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+/**
+ * Receives conversion events from a converter, e.g. to collect metrics. Calls come from whichever thread is converting,
+ * so implementations shared by threads must be threadsafe, and they should be cheap, since
+ * {@link #valueConverted(String, ParseType)} is called for every field value. Without a listener a converter does not
+ * look at the clock or make any of these calls.
+ *
+ * @see ConversionMetrics
+ */
+public interface ConversionListener {
+
+	/**
+	 * A field value was written or converted. Values of unmapped fields, and all values when there is no mapping,
+	 * count as {@link ParseType#STRING}.
+	 */
+	void valueConverted(String field, ParseType type);
+
+	/**
+	 * A field value could not be parsed as its type. The error is thrown to the caller after this returns, unless an
+	 * {@link ErrorPolicy} handles it.
+	 *
+	 * @param error the parse error, or null if the value was found invalid without parsing it
+	 */
+	void valueFailed(String field, ParseType type, String value, RuntimeException error);
+
+	/**
+	 * A whole document was converted
+	 *
+	 * @param elapsedNanos the time the conversion took
+	 */
+	void documentConverted(long elapsedNanos);
+
+	/**
+	 * UTF-8 encoded JSON was emitted, by {@link LucesConverter#writeJSON(org.apache.lucene.document.Document,
+	 * java.io.OutputStream, boolean)} or as a bulk body. Character based output is not counted.
+	 */
+	void bytesWritten(long bytes);
+}
@@ -0,0 +1,146 @@
+/*
+ * ConversionMetrics.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A {@link ConversionListener} that keeps running totals: documents converted, values per {@link ParseType}, parse
+ * failures per field, bytes emitted and a histogram of document conversion times. Threadsafe; every update is a
+ * single atomic increment, apart from the first failure of a field.
+ */
+public final class ConversionMetrics implements ConversionListener {
+	/** Bucket i counts conversions that took less than 2^i nanoseconds and at least 2^(i-1) */
+	private static final int LATENCY_BUCKETS = 64;
+
+	private final AtomicLong documents = new AtomicLong();
+	private final AtomicLong totalNanos = new AtomicLong();
+	private final AtomicLong bytes = new AtomicLong();
+	private final AtomicLongArray values = new AtomicLongArray(ParseType.values().length);
+	private final AtomicLongArray latencies = new AtomicLongArray(LATENCY_BUCKETS);
+	private final ConcurrentMap<String, AtomicLong> failures = new ConcurrentHashMap<>();
+
+	@Override
+	public void valueConverted(String field, ParseType type) {
+		values.incrementAndGet(type.ordinal());
+	}
+
+	@Override
+	public void valueFailed(String field, ParseType type, String value, RuntimeException error) {
+		AtomicLong count = failures.get(field);
+		if (count == null) {
+			AtomicLong first = new AtomicLong();
+			count = failures.putIfAbsent(field, first);
+			if (count == null) {
+				count = first;
+			}
+		}
+		count.incrementAndGet();
+	}
+
+	@Override
+	public void documentConverted(long elapsedNanos) {
+		documents.incrementAndGet();
+		totalNanos.addAndGet(elapsedNanos);
+		latencies.incrementAndGet(LATENCY_BUCKETS - Long.numberOfLeadingZeros(Math.max(elapsedNanos, 0)));
+	}
+
+	@Override
+	public void bytesWritten(long count) {
+		bytes.addAndGet(count);
+	}
+
+	/**
+	 * @return the number of documents converted
+	 */
+	public long getDocuments() {
+		return documents.get();
+	}
+
+	/**
+	 * @return the number of values converted as the type
+	 */
+	public long getValues(ParseType type) {
+		return values.get(type.ordinal());
+	}
+
+	/**
+	 * @return the number of values that failed to parse, per field name, sorted by name
+	 */
+	public Map<String, Long> getFailures() {
+		Map<String, Long> snapshot = new TreeMap<>();
+		for (Entry<String, AtomicLong> entry : failures.entrySet()) {
+			snapshot.put(entry.getKey(), entry.getValue().get());
+		}
+		return Collections.unmodifiableMap(snapshot);
+	}
+
+	/**
+	 * @return the number of UTF-8 bytes emitted
+	 */
+	public long getBytes() {
+		return bytes.get();
+	}
+
+	/**
+	 * @return the mean document conversion time
+	 */
+	public long getMeanLatency(TimeUnit unit) {
+		long count = documents.get();
+		return count == 0 ? 0 : unit.convert(totalNanos.get() / count, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Estimates a percentile of the document conversion times from the histogram. The result is the upper bound of
+	 * the power of two bucket the percentile falls into, so it overestimates by less than a factor of two.
+	 *
+	 * @param percentile between 0 and 100
+	 * @return the conversion time, or 0 if nothing was converted
+	 */
+	public long getLatencyPercentile(double percentile, TimeUnit unit) {
+		if (percentile < 0 || percentile > 100) {
+			throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+		}
+		long[] counts = new long[LATENCY_BUCKETS];
+		long total = 0;
+		for (int i = 0; i < LATENCY_BUCKETS; ++i) {
+			counts[i] = latencies.get(i);
+			total += counts[i];
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+		int bucket = 0;
+		for (long seen = counts[0]; seen < rank; seen += counts[++bucket]) {
+			// find the bucket holding the rank
+		}
+		long nanos = bucket >= LATENCY_BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+		return unit.convert(nanos, TimeUnit.NANOSECONDS);
+	}
+}
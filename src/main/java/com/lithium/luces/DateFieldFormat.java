@@ -0,0 +1,352 @@
+/*
+ * DateFieldFormat.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.io.IOException;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+import org.apache.lucene.document.DateTools;
+import org.apache.lucene.util.NumericUtils;
+
+/**
+ * The compiled {@code format} of a date field, e.g. {@code yyyy-MM-dd||epoch_millis}. Values are read in this order:
+ * <ol>
+ * <li>integers are passed through as numbers if the format has {@code epoch_millis} or {@code epoch_second}, without
+ * trying any pattern, so an epoch is never mistaken for a date like {@code yyyyMMdd}</li>
+ * <li>values matching a date pattern of the format are passed through, since Elasticsearch parses them the same
+ * way</li>
+ * <li>without an epoch format, all digit {@link DateTools} strings are decoded</li>
+ * <li>{@link NumericUtils} prefix coded longs of a date between the years 0 and 9999 are decoded. Stored numeric
+ * fields hold the plain number, so this is a last resort, also because any 11 character value starting with a space
+ * looks prefix coded</li>
+ * <li>other integers are read as epoch milliseconds</li>
+ * </ol>
+ * Decoded values are written in the first format. Immutable and threadsafe: pattern formats keep one
+ * {@link SimpleDateFormat} per thread, created once.
+ */
+final class DateFieldFormat {
+
+	/** The format of date fields that have none, as in Elasticsearch */
+	static final String DEFAULT_FORMAT = "strict_date_optional_time||epoch_millis";
+
+	private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+	/** Returned by {@link #decodePrefixCoded(String)} and {@link #decodeDateTools(String)} for other values */
+	private static final long NOT_ENCODED = Long.MIN_VALUE;
+	/** 0000-01-01T00:00:00Z, the earliest prefix coded long taken for a date */
+	private static final long MIN_PREFIX_CODED_MILLIS = -62167219200000L;
+	/** 9999-12-31T23:59:59.999Z, the latest prefix coded long taken for a date */
+	private static final long MAX_PREFIX_CODED_MILLIS = 253402300799999L;
+	/** Elasticsearch's built in formats, as SimpleDateFormat patterns, the first of which is used for writing */
+	private static final Map<String, String[]> NAMED_FORMATS = new HashMap<>();
+	/** The DateTools resolutions by length. Unlike DateTools itself these are strict, so month 13 is no date */
+	private static final PatternFormat[] DATE_TOOLS = new PatternFormat[18];
+
+	static {
+		String[] optionalTime = {"yyyy-MM-dd'T'HH:mm:ss.SSSXXX", "yyyy-MM-dd'T'HH:mm:ssXXX", "yyyy-MM-dd'T'HH:mm:ss.SSS",
+				"yyyy-MM-dd'T'HH:mm:ss", "yyyy-MM-dd'T'HH:mm", "yyyy-MM-dd"};
+		named(optionalTime, "date_optional_time");
+		named(new String[]{"yyyy-MM-dd"}, "date", "year_month_day");
+		named(new String[]{"yyyy-MM"}, "year_month");
+		named(new String[]{"yyyy"}, "year");
+		named(new String[]{"yyyy-MM-dd'T'HH:mm:ss.SSSXXX"}, "date_time");
+		named(new String[]{"yyyy-MM-dd'T'HH:mm:ssXXX"}, "date_time_no_millis");
+		named(new String[]{"yyyy-MM-dd'T'HH:mm:ss.SSS"}, "date_hour_minute_second_millis",
+				"date_hour_minute_second_fraction");
+		named(new String[]{"yyyy-MM-dd'T'HH:mm:ss"}, "date_hour_minute_second");
+		named(new String[]{"yyyy-MM-dd'T'HH:mm"}, "date_hour_minute");
+		named(new String[]{"yyyyMMdd"}, "basic_date");
+		named(new String[]{"yyyyMMdd'T'HHmmss.SSSXX"}, "basic_date_time");
+		named(new String[]{"yyyyMMdd'T'HHmmssXX"}, "basic_date_time_no_millis");
+
+		for (String pattern : new String[]{"yyyy", "yyyyMM", "yyyyMMdd", "yyyyMMddHH", "yyyyMMddHHmm", "yyyyMMddHHmmss",
+				"yyyyMMddHHmmssSSS"}) {
+			DATE_TOOLS[pattern.length()] = new PatternFormat(new String[]{pattern});
+		}
+	}
+
+	private static void named(String[] patterns, String... names) {
+		for (String name : names) {
+			NAMED_FORMATS.put(name, patterns);
+			NAMED_FORMATS.put("strict_" + name, patterns);
+		}
+	}
+
+	/** The compiled {@link #DEFAULT_FORMAT} */
+	static final DateFieldFormat DEFAULT = compile(DEFAULT_FORMAT);
+
+	/** Writes decoded values */
+	private final Format output;
+	private final PatternFormat[] patterns;
+	/** The first epoch format, or null */
+	private final EpochFormat epoch;
+
+	private DateFieldFormat(Format output, PatternFormat[] patterns, EpochFormat epoch) {
+		this.output = output;
+		this.patterns = patterns;
+		this.epoch = epoch;
+	}
+
+	/**
+	 * @param format the format of the mapping, or null for {@link #DEFAULT_FORMAT}
+	 * @throws UnsupportedOperationException if a format is neither built in nor a valid pattern
+	 */
+	static DateFieldFormat compile(String format) {
+		String[] names = (format == null ? DEFAULT_FORMAT : format).split("\\|\\|");
+		Format output = null;
+		List<PatternFormat> patterns = new ArrayList<>(names.length);
+		EpochFormat epoch = null;
+		for (String name : names) {
+			name = name.trim();
+			Format compiled;
+			if ("epoch_millis".equals(name) || "epoch_second".equals(name)) {
+				EpochFormat epochFormat = new EpochFormat("epoch_millis".equals(name) ? 1 : 1000);
+				if (epoch == null) {
+					epoch = epochFormat;
+				}
+				compiled = epochFormat;
+			} else {
+				String[] named = NAMED_FORMATS.get(name);
+				PatternFormat patternFormat;
+				try {
+					patternFormat = new PatternFormat(named == null ? new String[]{name} : named);
+				} catch (IllegalArgumentException ex) {
+					throw new UnsupportedOperationException("The " + name + " date format is not supported for conversion");
+				}
+				patterns.add(patternFormat);
+				compiled = patternFormat;
+			}
+			if (output == null) {
+				output = compiled;
+			}
+		}
+		return new DateFieldFormat(output, patterns.toArray(new PatternFormat[patterns.size()]), epoch);
+	}
+
+	void write(FieldDescriptor field, String value, DocumentOutput out) throws IOException {
+		if (epoch != null && ValueParser.isInteger(value)) {
+			out.value(ValueParser.parseLong(value));
+			return;
+		}
+		String trimmed = value.trim();
+		for (PatternFormat pattern : patterns) {
+			if (pattern.parse(trimmed) != null) {
+				out.value(trimmed);
+				return;
+			}
+		}
+		output.write(decode(field, value, trimmed), out);
+	}
+
+	Object convert(FieldDescriptor field, String value) {
+		if (epoch != null && ValueParser.isInteger(value)) {
+			return ValueParser.parseLong(value);
+		}
+		String trimmed = value.trim();
+		for (PatternFormat pattern : patterns) {
+			if (pattern.parse(trimmed) != null) {
+				return trimmed;
+			}
+		}
+		return output.convert(decode(field, value, trimmed));
+	}
+
+	/**
+	 * @return the epoch milliseconds of a value that is neither an epoch of the format nor matches one of its patterns
+	 * @throws IllegalArgumentException if it can't be read as a date
+	 */
+	private static long decode(FieldDescriptor field, String value, String trimmed) {
+		long millis = decodeDateTools(trimmed);
+		if (millis == NOT_ENCODED) {
+			millis = decodePrefixCoded(value);
+		}
+		return millis != NOT_ENCODED ? millis : toMillis(field, value, trimmed);
+	}
+
+	/**
+	 * Writes epoch milliseconds, e.g. of a numeric field, in the first format
+	 */
+	void writeMillis(long millis, DocumentOutput out) throws IOException {
+		output.write(millis, out);
+	}
+
+	Object convertMillis(long millis) {
+		return output.convert(millis);
+	}
+
+	/**
+	 * @return the epoch milliseconds of a {@link NumericUtils} prefix coded long of a plausible date, or
+	 *         {@link #NOT_ENCODED}
+	 */
+	private static long decodePrefixCoded(String value) {
+		// a full precision prefix coded long starts with a space as its shift, so check before trimming
+		if (value.length() == NumericUtils.BUF_SIZE_LONG && value.charAt(0) == NumericUtils.SHIFT_START_LONG) {
+			try {
+				long millis = NumericUtils.prefixCodedToLong(value);
+				if (millis >= MIN_PREFIX_CODED_MILLIS && millis <= MAX_PREFIX_CODED_MILLIS) {
+					return millis;
+				}
+			} catch (NumberFormatException ex) {
+				// not prefix coded after all
+			}
+		}
+		return NOT_ENCODED;
+	}
+
+	/**
+	 * Integers only get here without an epoch format, since an epoch of some lengths is also a valid DateTools string
+	 *
+	 * @return the epoch milliseconds of a {@link DateTools} string, or {@link #NOT_ENCODED}
+	 */
+	private static long decodeDateTools(String trimmed) {
+		if (trimmed.length() < DATE_TOOLS.length && DATE_TOOLS[trimmed.length()] != null && isDigits(trimmed)) {
+			Date date = DATE_TOOLS[trimmed.length()].parse(trimmed);
+			if (date != null) {
+				return date.getTime();
+			}
+		}
+		return NOT_ENCODED;
+	}
+
+	/**
+	 * @return the value read as epoch milliseconds
+	 * @throws IllegalArgumentException if it is no integer
+	 */
+	private static long toMillis(FieldDescriptor field, String value, String trimmed) {
+		if (!ValueParser.isInteger(trimmed)) {
+			throw new IllegalArgumentException("Error parsing " + field.getName() + " field: Unparseable date: \""
+					+ value + "\"");
+		}
+		return ValueParser.parseLong(trimmed);
+	}
+
+	private static boolean isDigits(String value) {
+		for (int i = 0; i < value.length(); ++i) {
+			char c = value.charAt(i);
+			if (c < '0' || c > '9') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * One of the alternatives of a date format, used to write decoded dates
+	 */
+	private abstract static class Format {
+
+		/**
+		 * Writes epoch milliseconds in this format
+		 */
+		abstract void write(long millis, DocumentOutput out) throws IOException;
+
+		abstract Object convert(long millis);
+	}
+
+	/**
+	 * Epoch milliseconds or seconds, written as numbers
+	 */
+	private static final class EpochFormat extends Format {
+		private final long millisPerUnit;
+
+		EpochFormat(long millisPerUnit) {
+			this.millisPerUnit = millisPerUnit;
+		}
+
+		@Override
+		void write(long millis, DocumentOutput out) throws IOException {
+			out.value(millis / millisPerUnit);
+		}
+
+		@Override
+		Object convert(long millis) {
+			return millis / millisPerUnit;
+		}
+	}
+
+	/**
+	 * Date patterns, in UTC unless the value has a zone, written as strings with the first pattern
+	 */
+	private static final class PatternFormat extends Format {
+		private final String[] patterns;
+		private final ThreadLocal<SimpleDateFormat[]> parsers = new ThreadLocal<SimpleDateFormat[]>() {
+			@Override
+			protected SimpleDateFormat[] initialValue() {
+				SimpleDateFormat[] parsers = new SimpleDateFormat[patterns.length];
+				for (int i = 0; i < patterns.length; ++i) {
+					parsers[i] = newFormat(patterns[i]);
+				}
+				return parsers;
+			}
+		};
+
+		/**
+		 * @throws IllegalArgumentException if a pattern is invalid
+		 */
+		PatternFormat(String[] patterns) {
+			this.patterns = patterns;
+			for (String pattern : patterns) {
+				newFormat(pattern);
+			}
+		}
+
+		private static SimpleDateFormat newFormat(String pattern) {
+			SimpleDateFormat format = new SimpleDateFormat(pattern, Locale.ROOT);
+			format.setLenient(false);
+			format.setTimeZone(UTC);
+			return format;
+		}
+
+		/**
+		 * @return the date, if one of the patterns matches the whole value, or null
+		 */
+		Date parse(String value) {
+			for (SimpleDateFormat parser : parsers.get()) {
+				ParsePosition position = new ParsePosition(0);
+				Date date = parser.parse(value, position);
+				if (date != null && position.getIndex() == value.length()) {
+					return date;
+				}
+			}
+			return null;
+		}
+
+		@Override
+		void write(long millis, DocumentOutput out) throws IOException {
+			out.value(format(millis));
+		}
+
+		@Override
+		Object convert(long millis) {
+			return format(millis);
+		}
+
+		private String format(long millis) {
+			return parsers.get()[0].format(new Date(millis));
+		}
+	}
+}
@@ -0,0 +1,65 @@
+/*
+ * DocumentOutput.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.io.IOException;
+
+/**
+ * Target of a document conversion. Names can be given as compiled keys, so outputs that support it can write them
+ * pre-encoded. A null value after a name drops the name, like a default Gson instance does.
+ */
+interface DocumentOutput {
+
+	void beginObject() throws IOException;
+
+	void endObject() throws IOException;
+
+	void beginArray() throws IOException;
+
+	void endArray() throws IOException;
+
+	void name(JsonKey key) throws IOException;
+
+	void name(String name) throws IOException;
+
+	void nullValue() throws IOException;
+
+	void value(long value) throws IOException;
+
+	void value(double value) throws IOException;
+
+	/**
+	 * Writes the shortest decimal form of the float, which is how a float field was indexed, rather than the longer
+	 * form of the same value as a double
+	 */
+	void value(float value) throws IOException;
+
+	void value(boolean value) throws IOException;
+
+	/**
+	 * @param value the string, or null for a null value
+	 */
+	void value(String value) throws IOException;
+
+	/**
+	 * Writes the bytes as a base64 string
+	 */
+	void binaryValue(byte[] bytes, int offset, int length) throws IOException;
+}
@@ -0,0 +1,79 @@
+/*
+ * ErrorHandling.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+/**
+ * Immutable settings for values that can't be converted: the {@link ErrorPolicy}, the {@link ErrorSink} that records
+ * them, and the stored field that identifies a document in the errors. The "with" methods return modified copies.
+ */
+public final class ErrorHandling {
+
+	/** Throw on the first invalid value, which is the default */
+	public static final ErrorHandling FAIL = new ErrorHandling(ErrorPolicy.FAIL, null, null);
+
+	private final ErrorPolicy policy;
+	private final ErrorSink sink;
+	private final String idField;
+
+	private ErrorHandling(ErrorPolicy policy, ErrorSink sink, String idField) {
+		this.policy = policy;
+		this.sink = sink;
+		this.idField = idField;
+	}
+
+	/**
+	 * @param policy what to do with invalid values
+	 * @return settings with the policy, without a sink or id field
+	 */
+	public static ErrorHandling of(ErrorPolicy policy) {
+		if (null == policy) {
+			throw new IllegalArgumentException("Error policy cannot be null");
+		}
+		return new ErrorHandling(policy, null, null);
+	}
+
+	/**
+	 * @param sink the sink for invalid values and dead letters, or null to drop them silently
+	 * @return a copy of this with the sink set
+	 */
+	public ErrorHandling withSink(ErrorSink sink) {
+		return new ErrorHandling(policy, sink, idField);
+	}
+
+	/**
+	 * @param idField the stored field whose value identifies a document in its errors, or null for none
+	 * @return a copy of this with the id field set
+	 */
+	public ErrorHandling withIdField(String idField) {
+		return new ErrorHandling(policy, sink, idField);
+	}
+
+	public ErrorPolicy getPolicy() {
+		return policy;
+	}
+
+	public ErrorSink getSink() {
+		return sink;
+	}
+
+	public String getIdField() {
+		return idField;
+	}
+}
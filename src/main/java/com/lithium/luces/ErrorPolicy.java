@@ -0,0 +1,42 @@
+/*
+ * ErrorPolicy.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+/**
+ * What a conversion does with a value that can't be converted to its mapped type, e.g. {@code 123abc} in an integer
+ * field
+ *
+ * @see ErrorHandling
+ */
+public enum ErrorPolicy {
+	/** Throw, which aborts the document. The default */
+	FAIL,
+	/** Leave the value out: a single value drops the field, and an array drops the element */
+	SKIP_FIELD,
+	/** Write null instead, which drops a single valued field like any null value, but keeps an array element */
+	NULL,
+	/** Write the default of the type instead: 0, 0.0 or false, and null for other types */
+	DEFAULT,
+	/**
+	 * Hand the document and all of its errors to the {@link ErrorSink}. Bulk conversions leave the document out of
+	 * the body, other conversions write it with the invalid values skipped.
+	 */
+	DEAD_LETTER
+}
@@ -0,0 +1,44 @@
+/*
+ * ErrorSink.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.util.List;
+
+import org.apache.lucene.document.Document;
+
+/**
+ * Receives the values that an {@link ErrorPolicy} other than {@link ErrorPolicy#FAIL} handled. Calls come from
+ * whichever thread is converting, so a sink shared by threads must be threadsafe.
+ */
+public interface ErrorSink {
+
+	/**
+	 * A value was skipped, or replaced by null or the type's default
+	 */
+	void invalidValue(ConversionError error);
+
+	/**
+	 * A document had invalid values under {@link ErrorPolicy#DEAD_LETTER}
+	 *
+	 * @param doc    the document
+	 * @param errors the document's invalid values, in field order
+	 */
+	void deadLetter(Document doc, List<ConversionError> errors);
+}
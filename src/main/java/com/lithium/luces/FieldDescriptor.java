@@ -0,0 +1,295 @@
+/*
+ * FieldDescriptor.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.io.IOException;
+
+import com.google.gson.JsonNull;
+
+/**
+ * A compiled mapping field: its type, its pre-encoded JSON keys, the object it belongs to and what to do with empty
+ * values. Immutable.
+ */
+final class FieldDescriptor {
+
+	/**
+	 * What an empty or whitespace only value converts to
+	 */
+	enum EmptyValue {
+		/** Parse it anyway, which fails for numbers */
+		PARSE,
+		/** The default of the type, e.g. 0 */
+		DEFAULT,
+		/** Null */
+		NULL
+	}
+
+	private final String name;
+	private final ParseType type;
+	private final EmptyValue emptyValue;
+	private final JsonKey key;
+	private final JsonKey memberKey;
+	private final PathNode parent;
+	private final DateFieldFormat dateFormat;
+
+	/**
+	 * @param name the interned field name, or null for the fallback of unmapped fields
+	 */
+	FieldDescriptor(String name, ParseType type, EmptyValue emptyValue) {
+		this(name, type, emptyValue, null);
+	}
+
+	/**
+	 * @param name   the interned, full dotted field name, or null for the fallback of unmapped fields
+	 * @param parent the object the field belongs to, or null for a top level field
+	 */
+	FieldDescriptor(String name, ParseType type, EmptyValue emptyValue, PathNode parent) {
+		this(name, type, emptyValue, parent, null);
+	}
+
+	/**
+	 * @param dateFormat the format of a date field, or null for {@link DateFieldFormat#DEFAULT}
+	 */
+	FieldDescriptor(String name, ParseType type, EmptyValue emptyValue, PathNode parent, DateFieldFormat dateFormat) {
+		this.name = name;
+		this.type = type;
+		this.emptyValue = emptyValue;
+		this.parent = parent;
+		this.dateFormat = dateFormat == null ? DateFieldFormat.DEFAULT : dateFormat;
+		key = name == null ? null : new JsonKey(name);
+		memberKey = parent == null || parent.getParent() == null ? key
+				: new JsonKey(name.substring(name.lastIndexOf('.') + 1));
+	}
+
+	private FieldDescriptor(FieldDescriptor field, EmptyValue emptyValue) {
+		name = field.name;
+		type = field.type;
+		this.emptyValue = emptyValue;
+		key = field.key;
+		memberKey = field.memberKey;
+		parent = field.parent;
+		dateFormat = field.dateFormat;
+	}
+
+	/**
+	 * @return a copy of this with another empty value option, sharing the encoded keys, or this if it is the same
+	 */
+	FieldDescriptor withEmptyValue(EmptyValue emptyValue) {
+		return emptyValue == this.emptyValue ? this : new FieldDescriptor(this, emptyValue);
+	}
+
+	String getName() {
+		return name;
+	}
+
+	ParseType getType() {
+		return type;
+	}
+
+	EmptyValue getEmptyValue() {
+		return emptyValue;
+	}
+
+	/**
+	 * @return the full field name as a key, e.g. {@code author.name}
+	 */
+	JsonKey getKey() {
+		return key;
+	}
+
+	/**
+	 * @return the last segment of the name as a key, e.g. {@code name}, for output as a member of its object
+	 */
+	JsonKey getMemberKey() {
+		return memberKey;
+	}
+
+	/**
+	 * @return the object the field belongs to, or null for the fallback of unmapped fields
+	 */
+	PathNode getParent() {
+		return parent;
+	}
+
+	/**
+	 * @return the format of a date field
+	 */
+	DateFieldFormat getDateFormat() {
+		return dateFormat;
+	}
+
+	/**
+	 * Writes the converted value, or null for a null value
+	 */
+	void write(String value, DocumentOutput out) throws IOException {
+		if (isNull(value)) {
+			out.nullValue();
+		} else {
+			type.write(this, value, out);
+		}
+	}
+
+	/**
+	 * @return the converted value, boxed, or {@link JsonNull#INSTANCE} for a null value
+	 */
+	Object convert(String value) {
+		return isNull(value) ? JsonNull.INSTANCE : type.convert(this, value);
+	}
+
+	/**
+	 * Writes the converted number of a numeric field, or null for a numeric field without a value
+	 */
+	void write(Number value, DocumentOutput out) throws IOException {
+		if (null == value) {
+			out.nullValue();
+		} else {
+			type.write(this, value, out);
+		}
+	}
+
+	/**
+	 * @return the converted number of a numeric field, boxed, or {@link JsonNull#INSTANCE} for no value
+	 */
+	Object convert(Number value) {
+		return null == value ? JsonNull.INSTANCE : type.convert(this, value);
+	}
+
+	/**
+	 * @return false if converting the value would fail
+	 * @see ParseType#isValid(FieldDescriptor, String)
+	 */
+	boolean isValid(String value) {
+		return isNull(value) || type.isValid(this, value);
+	}
+
+	/**
+	 * @return the message converting an invalid value fails with
+	 */
+	String invalidValueMessage(String value) {
+		String trimmed = value.trim();
+		if (type.isOutOfRange(value)) {
+			return "Error parsing " + name + " field: " + ValueParser.outOfRangeMessage(trimmed);
+		}
+		return "Error parsing " + name + " field: For input string: \"" + trimmed + "\"";
+	}
+
+	long toLong(String value) {
+		if (emptyValue == EmptyValue.DEFAULT && ValueParser.isBlank(value)) {
+			return 0L;
+		}
+		try {
+			return ValueParser.parseLong(value, type.getMinValue(), type.getMaxValue());
+		} catch (NumberFormatException ex) {
+			throw new NumberFormatException("Error parsing " + name + " field: " + ex.getMessage());
+		}
+	}
+
+	/**
+	 * @return the number of a numeric field, if it is in the range of the type
+	 */
+	long toLong(long value) {
+		if (value < type.getMinValue() || value > type.getMaxValue()) {
+			throw new NumberFormatException("Error parsing " + name + " field: " + ValueParser.outOfRangeMessage(
+					Long.toString(value)));
+		}
+		return value;
+	}
+
+	double toDouble(String value) {
+		if (emptyValue == EmptyValue.DEFAULT && ValueParser.isBlank(value)) {
+			return 0.0;
+		}
+		double parsed;
+		try {
+			parsed = ValueParser.parseDouble(value);
+		} catch (NumberFormatException ex) {
+			throw new NumberFormatException("Error parsing " + name + " field: " + ex.getMessage());
+		}
+		return toDouble(parsed);
+	}
+
+	/**
+	 * @return the value parsed as a double, if it is in the range of a float
+	 */
+	double toFloat(String value) {
+		if (emptyValue == EmptyValue.DEFAULT && ValueParser.isBlank(value)) {
+			return 0.0;
+		}
+		double parsed;
+		try {
+			parsed = ValueParser.parseFloat(value);
+		} catch (NumberFormatException ex) {
+			throw new NumberFormatException("Error parsing " + name + " field: " + ex.getMessage());
+		}
+		return toDouble(parsed);
+	}
+
+	/**
+	 * @return the value, if it is finite and in the range of a float
+	 * @see #toDouble(double)
+	 */
+	double toFloat(double value) {
+		toDouble(value);
+		if (Float.isInfinite((float) value)) {
+			throw new NumberFormatException("Error parsing " + name + " field: " + ValueParser.outOfRangeMessage(
+					Double.toString(value)));
+		}
+		return value;
+	}
+
+	/**
+	 * @return the value, if it is finite
+	 * @throws IllegalArgumentException for NaN and infinity, which JSON has no numbers for
+	 */
+	double toDouble(double value) {
+		if (Double.isNaN(value) || Double.isInfinite(value)) {
+			// same message as a default Gson instance, which would refuse to serialize it
+			throw new IllegalArgumentException(value + " is not a valid double value as per JSON specification. To "
+					+ "override this behavior, use GsonBuilder.serializeSpecialFloatingPointValues() method.");
+		}
+		return value;
+	}
+
+	/**
+	 * @see #toDouble(double)
+	 */
+	float toFloat(float value) {
+		toDouble(value);
+		return value;
+	}
+
+	/**
+	 * @return an IPv4 address stored as a number in dotted form, or any other value trimmed
+	 */
+	String toIp(String value) {
+		if (!ValueParser.isInteger(value)) {
+			return value.trim();
+		}
+		long ip = toLong(value);
+		if (ip < 0 || ip > 0xFFFFFFFFL) {
+			throw new IllegalArgumentException("Error parsing " + name + " field: " + ip + " is not an IPv4 address");
+		}
+		return (ip >>> 24) + "." + ((ip >>> 16) & 0xFF) + "." + ((ip >>> 8) & 0xFF) + "." + (ip & 0xFF);
+	}
+
+	private boolean isNull(String value) {
+		return null == value || (emptyValue == EmptyValue.NULL && ValueParser.isBlank(value));
+	}
+}
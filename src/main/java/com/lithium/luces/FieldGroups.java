@@ -0,0 +1,92 @@
+/*
+ * FieldGroups.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.util.List;
+
+import org.apache.lucene.document.Fieldable;
+
+/**
+ * Groups the fields of a document by name in one pass, chaining each field to the next field of the same name in a
+ * primitive array. The names are kept in an open addressing table like {@link FieldTable}, where Lucene's interned
+ * names normally match by reference. The table is reused from document to document: only the slots a document used
+ * are cleared afterwards.
+ */
+final class FieldGroups {
+	/** Ends a chain */
+	static final int LAST = ObjectMembers.LAST;
+
+	private String[] names = new String[32];
+	private int[] hashes = new int[32];
+	/** Per slot, the index of the last field seen with that name */
+	private int[] last = new int[32];
+	/** The slots used by the current document, to clear them again */
+	private int[] used = new int[16];
+
+	/**
+	 * @param next receives, per field index, the index of the next field with that name, or {@link #LAST}. Must hold
+	 *             at least count elements
+	 * @return next
+	 */
+	int[] link(List<Fieldable> docFields, int count, int[] next) {
+		if (names.length < count * 2) {
+			int capacity = Integer.highestOneBit(count * 2 - 1) << 1;
+			names = new String[capacity];
+			hashes = new int[capacity];
+			last = new int[capacity];
+		}
+		if (used.length < count) {
+			used = new int[count];
+		}
+		int mask = names.length - 1;
+		int size = 0;
+		for (int i = 0; i < count; ++i) {
+			next[i] = LAST;
+			String name = docFields.get(i).name();
+			int hash = name.hashCode();
+			int slot = (hash ^ (hash >>> 16)) & mask;
+			while (true) {
+				String key = names[slot];
+				if (key == null) {
+					names[slot] = name;
+					hashes[slot] = hash;
+					used[size++] = slot;
+					break;
+				} else if (key == name || hashes[slot] == hash && key.equals(name)) {
+					next[last[slot]] = i;
+					break;
+				}
+				slot = (slot + 1) & mask;
+			}
+			last[slot] = i;
+		}
+		for (int i = 0; i < size; ++i) {
+			names[used[i]] = null;
+		}
+		return next;
+	}
+
+	/**
+	 * @return the number of slots of the table
+	 */
+	int capacity() {
+		return names.length;
+	}
+}
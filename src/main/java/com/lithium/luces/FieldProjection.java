@@ -0,0 +1,133 @@
+/*
+ * FieldProjection.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.lucene.document.FieldSelector;
+import org.apache.lucene.document.FieldSelectorResult;
+
+/**
+ * The fields of documents to convert, either a list of included fields or everything but a list of excluded ones.
+ * As a {@link FieldSelector} it keeps Lucene from loading the other stored fields at all, e.g.
+ * {@code reader.document(doc, projection)}. Set on a converter, it skips the other fields of documents that were
+ * loaded in full, without converting their values. Immutable; the "with" methods return modified copies.
+ */
+public final class FieldProjection implements FieldSelector {
+
+	private static final long serialVersionUID = 1L;
+
+	private final Set<String> names;
+	/** Whether the names are the included fields, rather than the excluded ones */
+	private final boolean include;
+
+	private FieldProjection(Set<String> names, boolean include) {
+		this.names = Collections.unmodifiableSet(names);
+		this.include = include;
+	}
+
+	/**
+	 * @param names the fields to convert
+	 * @return a projection of only the named fields
+	 */
+	public static FieldProjection include(String... names) {
+		return include(Arrays.asList(names));
+	}
+
+	/**
+	 * @param names the fields to convert
+	 * @return a projection of only the named fields
+	 */
+	public static FieldProjection include(Collection<String> names) {
+		return new FieldProjection(new HashSet<>(names), true);
+	}
+
+	/**
+	 * @param names the fields to skip
+	 * @return a projection of all fields but the named ones
+	 */
+	public static FieldProjection exclude(String... names) {
+		return new FieldProjection(new HashSet<>(Arrays.asList(names)), false);
+	}
+
+	/**
+	 * @param mappings compiled mappings with types
+	 * @return a projection of the fields that are in any of the mappings
+	 */
+	public static FieldProjection mapped(LucesMapping... mappings) {
+		Set<String> names = new HashSet<>();
+		for (LucesMapping mapping : mappings) {
+			if (!mapping.isMapped()) {
+				throw new IllegalArgumentException("Compiled mapping must have a type");
+			}
+			names.addAll(mapping.getFieldNames());
+		}
+		return new FieldProjection(names, true);
+	}
+
+	/**
+	 * @param names fields to convert as well, e.g. the id field of a bulk request
+	 * @return a copy of this that includes the fields
+	 */
+	public FieldProjection withIncluded(String... names) {
+		Set<String> copy = new HashSet<>(this.names);
+		if (include) {
+			copy.addAll(Arrays.asList(names));
+		} else {
+			copy.removeAll(Arrays.asList(names));
+		}
+		return new FieldProjection(copy, include);
+	}
+
+	/**
+	 * @param names fields to skip as well
+	 * @return a copy of this that excludes the fields
+	 */
+	public FieldProjection withExcluded(String... names) {
+		Set<String> copy = new HashSet<>(this.names);
+		if (include) {
+			copy.removeAll(Arrays.asList(names));
+		} else {
+			copy.addAll(Arrays.asList(names));
+		}
+		return new FieldProjection(copy, include);
+	}
+
+	/**
+	 * @return whether the field is converted
+	 */
+	public boolean isIncluded(String fieldName) {
+		return names.contains(fieldName) == include;
+	}
+
+	@Override
+	public FieldSelectorResult accept(String fieldName) {
+		return isIncluded(fieldName) ? FieldSelectorResult.LOAD : FieldSelectorResult.NO_LOAD;
+	}
+
+	@Override
+	public String toString() {
+		return (include ? "include " : "exclude ") + names;
+	}
+}
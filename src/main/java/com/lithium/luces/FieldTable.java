@@ -0,0 +1,95 @@
+/*
+ * FieldTable.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.util.Collection;
+
+/**
+ * Open addressing table of field descriptors by name. Lucene interns field names and the mapping's names are interned
+ * too, so a lookup normally ends on a reference comparison. String hash codes are cached by the string, and stored
+ * here, so misses don't compare characters.
+ */
+final class FieldTable {
+
+	private final String[] names;
+	private final int[] hashes;
+	private final FieldDescriptor[] descriptors;
+	private final int mask;
+
+	FieldTable(Collection<FieldDescriptor> fields) {
+		// at most half full
+		int capacity = Integer.highestOneBit(Math.max(1, fields.size()) * 2 - 1) << 1;
+		names = new String[capacity];
+		hashes = new int[capacity];
+		descriptors = new FieldDescriptor[capacity];
+		mask = capacity - 1;
+		for (FieldDescriptor field : fields) {
+			int hash = field.getName().hashCode();
+			int slot = spread(hash) & mask;
+			while (names[slot] != null) {
+				slot = (slot + 1) & mask;
+			}
+			names[slot] = field.getName();
+			hashes[slot] = hash;
+			descriptors[slot] = field;
+		}
+	}
+
+	private FieldTable(FieldTable table, FieldDescriptor.EmptyValue emptyValue) {
+		// the slots stay the same, so the names and hashes can be shared
+		names = table.names;
+		hashes = table.hashes;
+		mask = table.mask;
+		descriptors = new FieldDescriptor[table.descriptors.length];
+		for (int slot = 0; slot < descriptors.length; ++slot) {
+			if (table.descriptors[slot] != null) {
+				descriptors[slot] = table.descriptors[slot].withEmptyValue(emptyValue);
+			}
+		}
+	}
+
+	/**
+	 * @return a copy of this with another empty value option for every field
+	 */
+	FieldTable withEmptyValue(FieldDescriptor.EmptyValue emptyValue) {
+		return new FieldTable(this, emptyValue);
+	}
+
+	/**
+	 * @return the descriptor for the field name, or null if it isn't mapped
+	 */
+	FieldDescriptor get(String name) {
+		int hash = name.hashCode();
+		for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+			String key = names[slot];
+			if (key == name) {
+				return descriptors[slot];
+			} else if (key == null) {
+				return null;
+			} else if (hashes[slot] == hash && key.equals(name)) {
+				return descriptors[slot];
+			}
+		}
+	}
+
+	private static int spread(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+}
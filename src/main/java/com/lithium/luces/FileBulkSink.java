@@ -0,0 +1,64 @@
+/*
+ * FileBulkSink.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes every bulk body to its own numbered file in a directory, e.g. bulk-000001.ndjson. Threadsafe.
+ */
+public class FileBulkSink implements BulkSink {
+
+	private final File directory;
+	private final String prefix;
+	private final AtomicInteger counter = new AtomicInteger();
+
+	/**
+	 * @param directory the directory to write to, created if it doesn't exist
+	 * @param prefix    the start of each file name
+	 * @throws IOException if the directory can't be created
+	 */
+	public FileBulkSink(File directory, String prefix) throws IOException {
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Unable to create directory " + directory);
+		}
+		this.directory = directory;
+		this.prefix = prefix;
+	}
+
+	@Override
+	public void flush(byte[] body, int length, int documentCount) throws IOException {
+		File file = new File(directory, String.format("%1$s-%2$06d.ndjson", prefix, counter.incrementAndGet()));
+		try (OutputStream out = new FileOutputStream(file)) {
+			out.write(body, 0, length);
+		}
+	}
+
+	/**
+	 * @return the number of files written so far
+	 */
+	public int getFileCount() {
+		return counter.get();
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ * JsonKey.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+/**
+ * An object member name together with its quoted, escaped UTF-8 encoding and the colon, and its CBOR encoding, so
+ * byte outputs can copy it instead of encoding the name for every document. Immutable.
+ */
+final class JsonKey {
+
+	private final String name;
+	private final byte[] utf8;
+	private final byte[] cbor;
+
+	JsonKey(String name) {
+		this.name = name;
+		utf8 = Utf8JsonOutput.encodeKey(name);
+		cbor = CborOutput.encodeKey(name);
+	}
+
+	String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the quoted, escaped name and the colon, as UTF-8
+	 */
+	byte[] getUtf8() {
+		return utf8;
+	}
+
+	/**
+	 * @return the name as a CBOR text string
+	 */
+	byte[] getCbor() {
+		return cbor;
+	}
+}
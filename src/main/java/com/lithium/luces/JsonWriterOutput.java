@@ -0,0 +1,101 @@
+/*
+ * JsonWriterOutput.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.io.IOException;
+
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Converts into a Gson JSON writer, e.g. for pretty printing or building a JSON tree
+ */
+final class JsonWriterOutput implements DocumentOutput {
+
+	private final JsonWriter writer;
+
+	JsonWriterOutput(JsonWriter writer) {
+		this.writer = writer;
+	}
+
+	@Override
+	public void beginObject() throws IOException {
+		writer.beginObject();
+	}
+
+	@Override
+	public void endObject() throws IOException {
+		writer.endObject();
+	}
+
+	@Override
+	public void beginArray() throws IOException {
+		writer.beginArray();
+	}
+
+	@Override
+	public void endArray() throws IOException {
+		writer.endArray();
+	}
+
+	@Override
+	public void name(JsonKey key) throws IOException {
+		writer.name(key.getName());
+	}
+
+	@Override
+	public void name(String name) throws IOException {
+		writer.name(name);
+	}
+
+	@Override
+	public void nullValue() throws IOException {
+		writer.nullValue();
+	}
+
+	@Override
+	public void value(long value) throws IOException {
+		writer.value(value);
+	}
+
+	@Override
+	public void value(double value) throws IOException {
+		writer.value(value);
+	}
+
+	@Override
+	public void value(float value) throws IOException {
+		writer.value(Float.valueOf(value));
+	}
+
+	@Override
+	public void value(boolean value) throws IOException {
+		writer.value(value);
+	}
+
+	@Override
+	public void value(String value) throws IOException {
+		writer.value(value);
+	}
+
+	@Override
+	public void binaryValue(byte[] bytes, int offset, int length) throws IOException {
+		writer.value(Base64Encoder.encode(bytes, offset, length));
+	}
+}
@@ -0,0 +1,240 @@
+/*
+ * LucesChangeFeed.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.document.FieldSelector;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.SegmentReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TermDocs;
+import org.apache.lucene.util.ReaderUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Syncs the changes between two snapshots of a Lucene 3.6 index, e.g. a reader and the one
+ * {@link IndexReader#openIfChanged(IndexReader)} returned for it, as _bulk bodies. Lucene segments never change once
+ * written, except for deletions, so only these are read:
+ * <ul>
+ * <li>segments that are new in the current snapshot, whose live documents are converted and indexed</li>
+ * <li>documents of shared segments that were deleted since, since only deletions can change there</li>
+ * <li>live documents of segments that were merged away</li>
+ * </ul>
+ * A shared segment with as many deletions as before is unchanged and skipped. A document that was removed is deleted
+ * by its id, unless the current snapshot has a document with that id, which is then an update and already indexed.
+ * <p>
+ * The id field of the bulk options must be stored and indexed untokenized, to look ids up. Documents of merged
+ * segments are indexed again, since a merge can't be told apart from updates to all of its documents; indexing by id
+ * is idempotent, but a sync right after a large merge costs as much as the merged segments.
+ */
+public class LucesChangeFeed {
+	private static final Logger log = LoggerFactory.getLogger(LucesChangeFeed.class);
+
+	private final LucesConverter converter;
+	private final BulkOptions options;
+	private final BulkSink sink;
+	private final String idField;
+	/** Loads only the id of a removed document */
+	private final FieldSelector idSelector;
+	private FieldSelector fieldSelector;
+
+	/**
+	 * @param converter the converter
+	 * @param options   the bulk index settings and limits, with the id field
+	 * @param sink      the sink for the bulk bodies
+	 * @throws IllegalArgumentException if the options have no id field
+	 */
+	public LucesChangeFeed(LucesConverter converter, BulkOptions options, BulkSink sink) {
+		if (null == options.getIdField()) {
+			throw new IllegalArgumentException("A change feed needs the id field of the bulk options");
+		}
+		this.converter = converter;
+		this.options = options;
+		this.sink = sink;
+		idField = options.getIdField();
+		idSelector = FieldProjection.include(idField);
+	}
+
+	/**
+	 * Loads only the stored fields the selector accepts, like {@link LucesReindexer#fieldSelector(FieldSelector)}
+	 *
+	 * @param fieldSelector the fields to load, or null to load all stored fields, which is the default
+	 * @return this
+	 */
+	public LucesChangeFeed fieldSelector(FieldSelector fieldSelector) {
+		if (fieldSelector instanceof FieldProjection) {
+			fieldSelector = ((FieldProjection) fieldSelector).withIncluded(idField);
+		}
+		this.fieldSelector = fieldSelector;
+		return this;
+	}
+
+	/**
+	 * Writes index actions for the documents that were added or updated between the snapshots, and delete actions
+	 * for the ones that were removed. Both readers are left open
+	 *
+	 * @param previous the snapshot that was synced last, or null to index all documents of the current one
+	 * @param current  the snapshot to sync
+	 * @return the number of documents indexed and deleted
+	 * @throws IOException if reading the index or writing to the sink fails
+	 */
+	public Changes sync(IndexReader previous, IndexReader current) throws IOException {
+		Map<String, IndexReader> previousSegments = new HashMap<>();
+		if (previous != null) {
+			for (IndexReader segment : subReaders(previous)) {
+				String name = segmentName(segment);
+				if (name != null) {
+					previousSegments.put(name, segment);
+				}
+			}
+		}
+		BulkWriter bulk = new BulkWriter(converter, options, sink);
+		TermDocs termDocs = current.termDocs();
+		int deleted = 0;
+		int unchangedSegments = 0;
+		try {
+			List<IndexReader> added = new ArrayList<>();
+			for (IndexReader segment : subReaders(current)) {
+				String name = segmentName(segment);
+				IndexReader before = name == null ? null : previousSegments.remove(name);
+				if (before == null) {
+					added.add(segment);
+				} else if (before.numDeletedDocs() == segment.numDeletedDocs()) {
+					// deletions only ever grow, so the same count means the same documents
+					++unchangedSegments;
+				} else {
+					deleted += deleteRemoved(before, segment, termDocs, bulk);
+				}
+			}
+			if (previous != null) {
+				// segments that were merged away, or dropped when all their documents were deleted
+				for (IndexReader segment : subReaders(previous)) {
+					String name = segmentName(segment);
+					if (name == null || previousSegments.containsKey(name)) {
+						deleted += deleteRemoved(segment, null, termDocs, bulk);
+					}
+				}
+			}
+			for (IndexReader segment : added) {
+				for (int doc = 0, maxDoc = segment.maxDoc(); doc < maxDoc; ++doc) {
+					if (!segment.isDeleted(doc)) {
+						bulk.add(segment.document(doc, fieldSelector));
+					}
+				}
+			}
+		} finally {
+			termDocs.close();
+		}
+		int indexed = bulk.finish();
+		if (log.isDebugEnabled()) {
+			log.debug("Synced " + indexed + " indexed and " + deleted + " deleted documents, " + unchangedSegments
+					+ " segments unchanged");
+		}
+		return new Changes(indexed, deleted, unchangedSegments);
+	}
+
+	/**
+	 * Writes delete actions for the documents that were live in the segment before, but aren't now and have no
+	 * replacement in the current snapshot
+	 *
+	 * @param after the same segment in the current snapshot, or null if it is gone
+	 * @return the number of delete actions
+	 */
+	private int deleteRemoved(IndexReader before, IndexReader after, TermDocs termDocs, BulkWriter bulk)
+			throws IOException {
+		int deleted = 0;
+		for (int doc = 0, maxDoc = before.maxDoc(); doc < maxDoc; ++doc) {
+			if (before.isDeleted(doc) || (after != null && !after.isDeleted(doc))) {
+				continue;
+			}
+			String id = before.document(doc, idSelector).get(idField);
+			if (id == null) {
+				throw new IllegalStateException("Document " + doc + " has no stored " + idField + " id field");
+			}
+			termDocs.seek(new Term(idField, id));
+			if (!termDocs.next()) {
+				bulk.delete(id);
+				++deleted;
+			}
+		}
+		return deleted;
+	}
+
+	private static List<IndexReader> subReaders(IndexReader reader) {
+		List<IndexReader> segments = new ArrayList<>();
+		ReaderUtil.gatherSubReaders(segments, reader);
+		return segments;
+	}
+
+	/**
+	 * @return the name of a segment, which identifies it across snapshots, or null if the reader isn't a segment
+	 */
+	private static String segmentName(IndexReader reader) {
+		return reader instanceof SegmentReader ? ((SegmentReader) reader).getSegmentName() : null;
+	}
+
+	/**
+	 * What a {@link #sync(IndexReader, IndexReader)} wrote
+	 */
+	public static final class Changes {
+		private final int indexed;
+		private final int deleted;
+		private final int unchangedSegments;
+
+		Changes(int indexed, int deleted, int unchangedSegments) {
+			this.indexed = indexed;
+			this.deleted = deleted;
+			this.unchangedSegments = unchangedSegments;
+		}
+
+		/**
+		 * @return the number of documents indexed, whether added, updated or merged
+		 */
+		public int getIndexed() {
+			return indexed;
+		}
+
+		/**
+		 * @return the number of delete actions
+		 */
+		public int getDeleted() {
+			return deleted;
+		}
+
+		/**
+		 * @return the number of segments that were skipped, since they hadn't changed
+		 */
+		public int getUnchangedSegments() {
+			return unchangedSegments;
+		}
+
+		@Override
+		public String toString() {
+			return "Changes{indexed=" + indexed + ", deleted=" + deleted + ", unchangedSegments=" + unchangedSegments
+					+ "}";
+		}
+	}
+}
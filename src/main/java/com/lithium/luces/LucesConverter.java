@@ -18,10 +18,17 @@
  */
 package com.lithium.luces;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Iterator;
+
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Fieldable;
 
+import com.google.gson.Gson;
 import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonWriter;
 
 /**
  * Provides a conversion from Lucene objects to a typed value (for Elasticsearch).
@@ -60,4 +67,121 @@ public interface LucesConverter {
 	 * @return the String version of the JSON version of a document
 	 */
 	String documentToJSONStringified(Document doc, boolean setPrettyPrint);
+
+	/**
+	 * Fields without a type in the mapping are converted as strings. Instead of logging every such value, the
+	 * converter logs each field name once and counts the values here.
+	 *
+	 * @return the counts of values converted for unmapped fields
+	 */
+	UnmappedFields getUnmappedFields();
+
+	/**
+	 * Instruments conversions, e.g. with a {@link ConversionMetrics}. Without a listener, which is the default,
+	 * conversions are not timed or counted at all.
+	 *
+	 * @param listener the listener, or null to stop instrumenting
+	 * @return this
+	 */
+	LucesConverter conversionListener(ConversionListener listener);
+
+	/**
+	 * Converts only the fields of the projection, e.g. {@link FieldProjection#mapped(LucesMapping...)}. The values of
+	 * the other fields aren't read at all. To keep Lucene from loading them in the first place, also pass the
+	 * projection as the field selector when reading documents.
+	 *
+	 * @param projection the fields to convert, or null to convert all fields, which is the default
+	 * @return this
+	 */
+	LucesConverter projection(FieldProjection projection);
+
+	/**
+	 * Sets what happens to values that can't be converted to their mapped type, e.g. {@code 123abc} in an integer
+	 * field. By default the conversion fails with the parse error.
+	 *
+	 * @param errorHandling the policy, and the sink that records the invalid values
+	 * @return this
+	 * @throws IllegalArgumentException if it is null, or dead letters documents without a sink
+	 */
+	LucesConverter errorHandling(ErrorHandling errorHandling);
+
+	/**
+	 * Gets the converter's shared Gson instance, configured like a default Gson instance. Lucene documents are
+	 * serialized by the converter, so they can be part of larger objects, e.g. {@code getGson(false).toJson(docList)}
+	 *
+	 * @param setPrettyPrint get the pretty printing instance
+	 * @return the shared Gson instance
+	 */
+	Gson getGson(boolean setPrettyPrint);
+
+	/**
+	 * Streams the JSON version of a document straight to a writer, without building an intermediate JSON tree. The
+	 * output is the same as {@link #documentToJSONStringified(Document, boolean)}
+	 *
+	 * @param doc            the Lucene document to convert
+	 * @param out            the writer to append to. It is flushed, but not closed
+	 * @param setPrettyPrint pretty print the JSON string
+	 * @throws IOException if writing to out fails
+	 */
+	void writeJSON(Document doc, Writer out, boolean setPrettyPrint) throws IOException;
+
+	/**
+	 * Streams the UTF-8 encoded JSON version of a document to an output stream
+	 *
+	 * @param doc            the Lucene document to convert
+	 * @param out            the stream to write to. It is flushed, but not closed
+	 * @param setPrettyPrint pretty print the JSON string
+	 * @throws IOException if writing to out fails
+	 */
+	void writeJSON(Document doc, OutputStream out, boolean setPrettyPrint) throws IOException;
+
+	/**
+	 * Writes the document as compact UTF-8 JSON, like {@link #writeJSON(Document, OutputStream, boolean)}, with the
+	 * caller's scratch space, e.g. one kept per worker
+	 *
+	 * @param doc     Lucene document to convert
+	 * @param out     the stream to write to, which is flushed but not closed
+	 * @param context scratch space that is reused from document to document, by one thread at a time
+	 * @throws IOException if the stream throws
+	 */
+	void writeJSON(Document doc, OutputStream out, ConversionContext context) throws IOException;
+
+	/**
+	 * Writes the document as a JSON object to an existing JSON writer, honoring the writer's own formatting settings.
+	 * Repeated field names are written as arrays
+	 *
+	 * @param doc    the Lucene document to convert
+	 * @param writer the JSON writer
+	 * @throws IOException if writing fails
+	 */
+	void writeJSON(Document doc, JsonWriter writer) throws IOException;
+
+	/**
+	 * Writes the document as CBOR, a binary alternative to JSON that Elasticsearch accepts with the application/cbor
+	 * content type. Values are typed by the mapping like in the JSON output, and binary fields are written as byte
+	 * strings instead of base64
+	 *
+	 * @param doc the Lucene document to convert
+	 * @param out the stream to write to, which is flushed but not closed
+	 * @throws IOException if the stream throws
+	 */
+	void writeCBOR(Document doc, OutputStream out) throws IOException;
+
+	/**
+	 * Writes documents as an Elasticsearch _bulk body: an index action line followed by the source line for each
+	 * document. Bodies are built in one reusable buffer and handed to the sink whenever the byte or document limit of
+	 * the options is reached.
+	 *
+	 * @param docs    the Lucene documents to convert
+	 * @param options the index, type, id field and limits
+	 * @param sink    receives each body
+	 * @return the number of documents written
+	 * @throws IOException if the sink fails
+	 */
+	int documentsToBulk(Iterable<Document> docs, BulkOptions options, BulkSink sink) throws IOException;
+
+	/**
+	 * @see #documentsToBulk(Iterable, BulkOptions, BulkSink)
+	 */
+	int documentsToBulk(Iterator<Document> docs, BulkOptions options, BulkSink sink) throws IOException;
 }
@@ -0,0 +1,87 @@
+/*
+ * LucesExecutors.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executors for conversions that mostly wait on disk or sockets, e.g. reading an index and sending bulk bodies. On
+ * JDK 21 and later each task runs on its own virtual thread, so blocking costs no platform thread. Older JDKs, which
+ * this library still compiles for, fall back to a fixed pool of platform threads.
+ * <p>
+ * Converters keep per thread scratch space, which a new virtual thread allocates again for every task, so tasks are
+ * best kept coarse, e.g. ranges of thousands of documents.
+ */
+public final class LucesExecutors {
+	private static final Logger log = LoggerFactory.getLogger(LucesExecutors.class);
+
+	/** Executors.newVirtualThreadPerTaskExecutor(), or null before JDK 21 */
+	private static final Method NEW_VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutor();
+
+	private LucesExecutors() {
+	}
+
+	private static Method findVirtualThreadExecutor() {
+		try {
+			Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			// a preview API on JDK 19 and 20, which throws unless previews are enabled
+			((ExecutorService) method.invoke(null)).shutdown();
+			return method;
+		} catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException ex) {
+			if (log.isDebugEnabled()) {
+				log.debug("Virtual threads are not available, falling back to platform threads: " + ex);
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * @return true if {@link #newVirtualThreadExecutor(int)} runs tasks on virtual threads
+	 */
+	public static boolean isVirtualThreadsAvailable() {
+		return NEW_VIRTUAL_THREAD_EXECUTOR != null;
+	}
+
+	/**
+	 * @param fallbackThreads the number of platform threads to use without virtual threads
+	 * @return an executor that starts a virtual thread for every task, or else a fixed pool of platform threads. The
+	 *         caller shuts it down
+	 */
+	public static ExecutorService newVirtualThreadExecutor(int fallbackThreads) {
+		if (fallbackThreads <= 0) {
+			throw new IllegalArgumentException("Thread count must be positive: " + fallbackThreads);
+		}
+		if (NEW_VIRTUAL_THREAD_EXECUTOR != null) {
+			try {
+				return (ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke(null);
+			} catch (IllegalAccessException | InvocationTargetException ex) {
+				// it worked when probed, so this isn't expected
+				throw new IllegalStateException("Cannot create a virtual thread executor", ex);
+			}
+		}
+		return Executors.newFixedThreadPool(fallbackThreads);
+	}
+}
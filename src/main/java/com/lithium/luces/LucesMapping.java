@@ -0,0 +1,310 @@
+/*
+ * LucesMapping.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * An immutable, compiled Elasticsearch mapping for a single type, together with the options for handling empty
+ * values. Instances are safe to share between any number of threads; the "with" methods return modified copies,
+ * which share the compiled fields and objects of the mapping instead of compiling them again.
+ */
+public final class LucesMapping {
+
+	/** No type mapping: every field is converted as a string */
+	public static final LucesMapping UNMAPPED = new LucesMapping(null, null, false, false, true, false);
+
+	private final String typeName;
+	/** The compiled type mapping, or null if there is none */
+	private final Compiled compiled;
+	private final boolean useDefaults;
+	private final boolean useNull;
+	private final boolean errIfMappingNull;
+	private final boolean nestedObjects;
+	private final FieldTable fields;
+	/** Converts fields that aren't in the mapping, as strings */
+	private final FieldDescriptor unmappedField;
+
+	private LucesMapping(String typeName, Compiled compiled, boolean useDefaults, boolean useNull,
+			boolean errIfMappingNull, boolean nestedObjects) {
+		this.typeName = typeName;
+		this.compiled = compiled;
+		this.useDefaults = useDefaults;
+		this.useNull = useNull;
+		this.errIfMappingNull = errIfMappingNull;
+		this.nestedObjects = nestedObjects;
+
+		FieldDescriptor.EmptyValue emptyValue = emptyValue(useDefaults, useNull);
+		unmappedField = new FieldDescriptor(null, ParseType.STRING, emptyValue);
+		fields = compiled == null ? null : compiled.getFields(emptyValue);
+	}
+
+	private static FieldDescriptor.EmptyValue emptyValue(boolean useDefaults, boolean useNull) {
+		return useNull ? FieldDescriptor.EmptyValue.NULL
+				: useDefaults ? FieldDescriptor.EmptyValue.DEFAULT : FieldDescriptor.EmptyValue.PARSE;
+	}
+
+	/**
+	 * @param path the dotted path of an object, or the empty string for the root
+	 * @return the node of the path, added to the trie with its parents if it isn't there yet
+	 */
+	private static PathNode pathNode(String path, List<PathNode> nodes, Map<String, PathNode> nodesByPath) {
+		if (path.isEmpty()) {
+			return nodes.get(0);
+		}
+		PathNode node = nodesByPath.get(path);
+		if (node == null) {
+			int dot = path.lastIndexOf('.');
+			PathNode parent = pathNode(path.substring(0, Math.max(0, dot)), nodes, nodesByPath);
+			node = new PathNode(nodes.size(), path.substring(dot + 1), parent);
+			nodes.add(node);
+			nodesByPath.put(path, node);
+		}
+		return node;
+	}
+
+	/**
+	 * Compiles a mapping JSON object with the default options
+	 *
+	 * Fields of {@code object} and {@code nested} properties are compiled by their full dotted name, e.g.
+	 * {@code author.name}, which is how they are usually flattened into Lucene documents.
+	 *
+	 * @param typeName Name of the type, which must be the root of the mapping
+	 * @param mapping  mapping JSON object
+	 * @return the compiled mapping
+	 * @throws NoSuchElementException        if the type is not in the mapping, or a field has no type
+	 * @throws UnsupportedOperationException if a field type is not supported for conversion
+	 */
+	public static LucesMapping compile(String typeName, JsonObject mapping) {
+		return UNMAPPED.withMapping(typeName, mapping);
+	}
+
+	/**
+	 * @param typename Name of the type. If it or the mapping is null, the result has no type mapping
+	 * @param mapping  mapping JSON object
+	 * @return a copy of this with the given type mapping, keeping the current options
+	 * @see #compile(String, JsonObject)
+	 */
+	public LucesMapping withMapping(String typename, JsonObject mapping) {
+		if (null == typename || null == mapping) {
+			return new LucesMapping(null, null, useDefaults, useNull, errIfMappingNull, nestedObjects);
+		}
+		Map<String, ParseType> types = new HashMap<>();
+		Map<String, DateFieldFormat> formats = new HashMap<>();
+		JsonObject workingJson = mapping.getAsJsonObject(typename);
+		if (null == workingJson) {
+			throw new NoSuchElementException(typename + " type not present or misnamed in mapping");
+		}
+		addProperties("", workingJson.getAsJsonObject("properties"), types, formats);
+		Compiled compiled = new Compiled(Collections.unmodifiableMap(types), formats, emptyValue(useDefaults, useNull));
+		return new LucesMapping(typename, compiled, useDefaults, useNull, errIfMappingNull, nestedObjects);
+	}
+
+	/**
+	 * Adds the types of the properties, and recursively of the properties of object and nested fields. Date formats
+	 * are compiled here, once per mapping.
+	 *
+	 * @param prefix the dotted path of the enclosing object and a dot, or the empty string at the top level
+	 */
+	private static void addProperties(String prefix, JsonObject properties, Map<String, ParseType> types,
+			Map<String, DateFieldFormat> formats) {
+		for (Entry<String, JsonElement> entry : properties.entrySet()) {
+			String name = prefix + entry.getKey();
+			JsonObject property = entry.getValue().getAsJsonObject();
+			JsonObject nestedProperties = property.getAsJsonObject("properties");
+			if (null != nestedProperties) {
+				// an object or nested field, whatever the type says
+				addProperties(name + ".", nestedProperties, types, formats);
+				continue;
+			}
+			JsonElement typeElt = property.get("type");
+			if (null == typeElt) {
+				throw new NoSuchElementException("Invalid mapping: No type defined for " + name + " field.");
+			}
+			ParseType parseType;
+			try {
+				parseType = ParseType.valueOf(typeElt.getAsString().toUpperCase());
+			} catch (UnsupportedOperationException ex) {
+				throw new UnsupportedOperationException("Invalid Mapping: Type defined is not a string: " + typeElt.toString());
+			} catch (IllegalArgumentException illegal) {
+				throw new UnsupportedOperationException("The " + typeElt.getAsString() + " type is not supported for conversion");
+			}
+			types.put(name, parseType);
+			JsonElement format = property.get("format");
+			if (parseType == ParseType.DATE && null != format) {
+				formats.put(name, DateFieldFormat.compile(format.getAsString()));
+			}
+		}
+	}
+
+	/**
+	 * @param usedefaults use the default value of a type for empty strings. If true, null for empty is turned off
+	 * @return a copy of this with the option set
+	 * @see LucesMapper#useDefaultsForEmpty(boolean)
+	 */
+	public LucesMapping withDefaultsForEmpty(boolean usedefaults) {
+		return new LucesMapping(typeName, compiled, usedefaults, usedefaults ? false : useNull, errIfMappingNull,
+				nestedObjects);
+	}
+
+	/**
+	 * @param usenull use null for empty strings. If true, defaults for empty are turned off
+	 * @return a copy of this with the option set
+	 * @see LucesMapper#useNullForEmpty(boolean)
+	 */
+	public LucesMapping withNullForEmpty(boolean usenull) {
+		return new LucesMapping(typeName, compiled, usenull ? false : useDefaults, usenull, errIfMappingNull,
+				nestedObjects);
+	}
+
+	/**
+	 * @param throwError throw an error when converting without a type mapping
+	 * @return a copy of this with the option set
+	 * @see LucesMapper#throwErrorIfMappingIsNull(boolean)
+	 */
+	public LucesMapping withErrorIfMappingIsNull(boolean throwError) {
+		return new LucesMapping(typeName, compiled, useDefaults, useNull, throwError, nestedObjects);
+	}
+
+	/**
+	 * @param nested write the fields of object and nested properties as JSON objects, e.g.
+	 *               {@code {"author":{"name":"x"}}} instead of {@code {"author.name":"x"}}
+	 * @return a copy of this with the option set
+	 * @see Luces#useNestedObjects(boolean)
+	 */
+	public LucesMapping withNestedObjects(boolean nested) {
+		return new LucesMapping(typeName, compiled, useDefaults, useNull, errIfMappingNull, nested);
+	}
+
+	/**
+	 * @return the type name, or null if there is no type mapping
+	 */
+	public String getTypeName() {
+		return typeName;
+	}
+
+	/**
+	 * @return whether a type and its mapping are set
+	 */
+	public boolean isMapped() {
+		return null != compiled && null != typeName;
+	}
+
+	public boolean isUseDefaultsForEmpty() {
+		return useDefaults;
+	}
+
+	public boolean isUseNullForEmpty() {
+		return useNull;
+	}
+
+	public boolean isErrorIfMappingIsNull() {
+		return errIfMappingNull;
+	}
+
+	public boolean isNestedObjects() {
+		return nestedObjects;
+	}
+
+	/**
+	 * @return the compiled field, or null if there is no mapping or the field isn't in it
+	 */
+	FieldDescriptor getField(String fieldName) {
+		return fields == null ? null : fields.get(fieldName);
+	}
+
+	/**
+	 * @return the full dotted names of the mapped fields, empty if there is no mapping
+	 */
+	Set<String> getFieldNames() {
+		return compiled == null ? Collections.<String>emptySet() : compiled.typeMap.keySet();
+	}
+
+	/**
+	 * @return the objects of the mapping, indexed by their ids, or null if there is no mapping
+	 */
+	PathNode[] getPathNodes() {
+		return compiled == null ? null : compiled.pathNodes;
+	}
+
+	/**
+	 * @return the descriptor for fields that aren't in the mapping, which converts them as strings
+	 */
+	FieldDescriptor getUnmappedField() {
+		return unmappedField;
+	}
+
+	/**
+	 * The fields and objects of a type mapping, which don't depend on the options. Field tables only differ in what
+	 * empty values convert to, so there is at most one per {@link FieldDescriptor.EmptyValue}, copied from the first
+	 * when another is needed.
+	 */
+	private static final class Compiled {
+		/** The types by full dotted field name, e.g. {@code author.name} */
+		final Map<String, ParseType> typeMap;
+		/** The objects of the mapping by id, starting with the root */
+		final PathNode[] pathNodes;
+		private final FieldTable first;
+		private final AtomicReferenceArray<FieldTable> fieldsByEmptyValue =
+				new AtomicReferenceArray<>(FieldDescriptor.EmptyValue.values().length);
+
+		/**
+		 * @param dateFormats the formats of the date fields that have one
+		 */
+		Compiled(Map<String, ParseType> typeMap, Map<String, DateFieldFormat> dateFormats,
+				FieldDescriptor.EmptyValue emptyValue) {
+			this.typeMap = typeMap;
+			List<PathNode> nodes = new ArrayList<>();
+			nodes.add(new PathNode(0, null, null));
+			Map<String, PathNode> nodesByPath = new HashMap<>();
+			List<FieldDescriptor> descriptors = new ArrayList<>(typeMap.size());
+			for (Entry<String, ParseType> entry : typeMap.entrySet()) {
+				String name = entry.getKey();
+				PathNode parent = pathNode(name.substring(0, Math.max(0, name.lastIndexOf('.'))), nodes, nodesByPath);
+				descriptors.add(new FieldDescriptor(name.intern(), entry.getValue(), emptyValue, parent,
+						dateFormats.get(name)));
+			}
+			first = new FieldTable(descriptors);
+			fieldsByEmptyValue.set(emptyValue.ordinal(), first);
+			pathNodes = nodes.toArray(new PathNode[nodes.size()]);
+		}
+
+		FieldTable getFields(FieldDescriptor.EmptyValue emptyValue) {
+			FieldTable fields = fieldsByEmptyValue.get(emptyValue.ordinal());
+			if (fields == null) {
+				// racing copies are equal, keep whichever is set first
+				fieldsByEmptyValue.compareAndSet(emptyValue.ordinal(), null, first.withEmptyValue(emptyValue));
+				fields = fieldsByEmptyValue.get(emptyValue.ordinal());
+			}
+			return fields;
+		}
+	}
+}
@@ -0,0 +1,225 @@
+/*
+ * LucesReindexer.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.lucene.document.FieldSelector;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.store.Directory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads every live document of a Lucene 3.6 index and converts it to Elasticsearch _bulk bodies on a pool of threads.
+ * The doc id space is split into ranges, and each range is converted by one thread into bodies for the sink. At most
+ * a bounded number of ranges are queued at a time, so a slow sink holds back reading instead of filling up memory.
+ * <p>
+ * The converter and the sink are called from several threads at once, so both must be threadsafe, e.g. a
+ * {@link ConcurrentLuces} and a {@link FileBulkSink}. A sink that blocks on the network is best run on virtual
+ * threads, see {@link #virtualThreads(boolean)}.
+ */
+public class LucesReindexer {
+	private static final Logger log = LoggerFactory.getLogger(LucesReindexer.class);
+
+	/** Default number of doc ids per range */
+	public static final int DEFAULT_RANGE_SIZE = 10000;
+
+	private final LucesConverter converter;
+	private final BulkOptions options;
+	private final BulkSink sink;
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private int rangeSize = DEFAULT_RANGE_SIZE;
+	private int maxPendingRanges = 2 * threads;
+	private FieldSelector fieldSelector;
+	private boolean virtualThreads;
+
+	/**
+	 * @param converter a threadsafe converter
+	 * @param options   the bulk index settings and limits
+	 * @param sink      a threadsafe sink for the bulk bodies
+	 */
+	public LucesReindexer(LucesConverter converter, BulkOptions options, BulkSink sink) {
+		this.converter = converter;
+		this.options = options;
+		this.sink = sink;
+	}
+
+	/**
+	 * @param threads number of conversion threads. Defaults to the number of available processors
+	 * @return this
+	 */
+	public LucesReindexer threads(int threads) {
+		if (threads <= 0) {
+			throw new IllegalArgumentException("Thread count must be positive: " + threads);
+		}
+		this.threads = threads;
+		return this;
+	}
+
+	/**
+	 * @param rangeSize number of doc ids converted by one task. Each range ends with a partial bulk body, so this is
+	 *                  best kept a multiple of the document limit of the bulk options
+	 * @return this
+	 */
+	public LucesReindexer rangeSize(int rangeSize) {
+		if (rangeSize <= 0) {
+			throw new IllegalArgumentException("Range size must be positive: " + rangeSize);
+		}
+		this.rangeSize = rangeSize;
+		return this;
+	}
+
+	/**
+	 * @param maxPendingRanges number of ranges that may be submitted but not yet converted. Defaults to twice the
+	 *                         default thread count
+	 * @return this
+	 */
+	public LucesReindexer maxPendingRanges(int maxPendingRanges) {
+		if (maxPendingRanges <= 0) {
+			throw new IllegalArgumentException("Pending range limit must be positive: " + maxPendingRanges);
+		}
+		this.maxPendingRanges = maxPendingRanges;
+		return this;
+	}
+
+	/**
+	 * Runs each range on its own virtual thread where the JDK supports them, see {@link LucesExecutors}. Up to
+	 * {@link #maxPendingRanges(int)} ranges are then converted and sent at once, instead of {@link #threads(int)},
+	 * so a sink that blocks on I/O holds no platform thread. Without virtual threads this has no effect.
+	 *
+	 * @param virtualThreads true to use virtual threads. Defaults to false
+	 * @return this
+	 */
+	public LucesReindexer virtualThreads(boolean virtualThreads) {
+		this.virtualThreads = virtualThreads;
+		return this;
+	}
+
+	/**
+	 * Loads only the stored fields the selector accepts, e.g. a {@link FieldProjection} of the mapped fields, which
+	 * saves reading and decoding the others. A projection always loads the id field of the bulk options too; any other
+	 * selector must load it itself.
+	 *
+	 * @param fieldSelector the fields to load, or null to load all stored fields, which is the default
+	 * @return this
+	 */
+	public LucesReindexer fieldSelector(FieldSelector fieldSelector) {
+		if (fieldSelector instanceof FieldProjection && null != options.getIdField()) {
+			fieldSelector = ((FieldProjection) fieldSelector).withIncluded(options.getIdField());
+		}
+		this.fieldSelector = fieldSelector;
+		return this;
+	}
+
+	/**
+	 * Opens a read only reader on the directory, e.g. an MMapDirectory, and reindexes it
+	 *
+	 * @param directory the Lucene index
+	 * @return the number of documents converted
+	 * @throws IOException if reading the index or writing to the sink fails
+	 */
+	public long reindex(Directory directory) throws IOException {
+		IndexReader reader = IndexReader.open(directory);
+		try {
+			return reindex(reader);
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * Converts all documents of the reader that aren't deleted. The reader is left open
+	 *
+	 * @param reader the index reader
+	 * @return the number of documents converted
+	 * @throws IOException if reading the index or writing to the sink fails
+	 */
+	public long reindex(final IndexReader reader) throws IOException {
+		final int maxDoc = reader.maxDoc();
+		final AtomicLong converted = new AtomicLong();
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+		final Semaphore pending = new Semaphore(maxPendingRanges);
+		boolean virtual = virtualThreads && LucesExecutors.isVirtualThreadsAvailable();
+		ExecutorService pool = virtual ? LucesExecutors.newVirtualThreadExecutor(threads)
+				: Executors.newFixedThreadPool(threads);
+		if (log.isDebugEnabled()) {
+			log.debug("Reindexing " + reader.numDocs() + " documents on " + (virtual ? "virtual threads" : threads
+					+ " threads"));
+		}
+		try {
+			for (int start = 0; start < maxDoc && failure.get() == null; start += rangeSize) {
+				final int from = start;
+				final int to = (int) Math.min((long) start + rangeSize, maxDoc);
+				pending.acquire();
+				pool.execute(new Runnable() {
+					@Override
+					public void run() {
+						try {
+							if (failure.get() == null) {
+								converted.addAndGet(convertRange(reader, from, to));
+							}
+						} catch (Throwable ex) {
+							failure.compareAndSet(null, ex);
+						} finally {
+							pending.release();
+						}
+					}
+				});
+			}
+			pool.shutdown();
+			pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while reindexing", ex);
+		} finally {
+			pool.shutdownNow();
+		}
+
+		Throwable ex = failure.get();
+		if (ex instanceof IOException) {
+			throw (IOException) ex;
+		} else if (ex instanceof RuntimeException) {
+			throw (RuntimeException) ex;
+		} else if (ex instanceof Error) {
+			throw (Error) ex;
+		} else if (ex != null) {
+			throw new IOException(ex);
+		}
+		return converted.get();
+	}
+
+	private int convertRange(IndexReader reader, int from, int to) throws IOException {
+		BulkWriter bulk = new BulkWriter(converter, options, sink);
+		boolean hasDeletions = reader.hasDeletions();
+		for (int doc = from; doc < to; ++doc) {
+			if (!hasDeletions || !reader.isDeleted(doc)) {
+				bulk.add(reader.document(doc, fieldSelector));
+			}
+		}
+		return bulk.finish();
+	}
+}
@@ -0,0 +1,338 @@
+/*
+ * MappedFileBulkSink.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Appends bulk bodies to NDJSON segment files through memory mapped windows, so the encoded bytes are copied once,
+ * straight into the page cache. A segment is rolled over to the next numbered file, e.g. bulk-000002.ndjson, before a
+ * body would take it past the segment size. Bodies are never split across segments, so each segment can be loaded on
+ * its own, and a body larger than the segment size gets a segment to itself.
+ * <p>
+ * Every finished segment is appended to a manifest, e.g. bulk.manifest, as a line of JSON with the file name, the
+ * number of bytes and the number of documents. How often the data is forced to the disk is set with
+ * {@link #syncPolicy(SyncPolicy)}. The sink must be closed to finish the last segment. Threadsafe.
+ * <p>
+ * Each window is unmapped as soon as it is full, and before the segment is cut down to its written bytes, which the
+ * JDK has no public API for. Where it can't be done, bodies are written through the file channel instead.
+ */
+public class MappedFileBulkSink implements BulkSink, Closeable {
+	private static final Logger log = LoggerFactory.getLogger(MappedFileBulkSink.class);
+
+	/** Default maximum size of one segment, 1GB */
+	public static final long DEFAULT_MAX_SEGMENT_BYTES = 1L << 30;
+	/** The largest mapped region of a segment, smaller when the segment size leaves less room */
+	static final int WINDOW_BYTES = 32 * 1024 * 1024;
+
+	/** Releases a mapped buffer right away, or null if this JDK doesn't allow it */
+	private static final Unmapper UNMAPPER = findUnmapper();
+
+	/**
+	 * When written data is forced to the storage device
+	 */
+	public enum SyncPolicy {
+		/** Leave it to the operating system */
+		NONE,
+		/** When a segment is finished, before it is added to the manifest */
+		SEGMENT,
+		/** After every bulk body, before {@link #flush(byte[], int, int)} returns */
+		BODY
+	}
+
+	private final File directory;
+	private final String prefix;
+	private final File manifest;
+	private final List<Segment> segments = new ArrayList<>();
+	private long maxSegmentBytes = DEFAULT_MAX_SEGMENT_BYTES;
+	private SyncPolicy syncPolicy = SyncPolicy.SEGMENT;
+
+	private File file;
+	private FileChannel channel;
+	/** The mapped region being written, from the segment's written bytes on, or null if none is mapped */
+	private MappedByteBuffer window;
+	private long written;
+	private int documents;
+	private boolean closed;
+
+	/**
+	 * @param directory the directory to write to, created if it doesn't exist
+	 * @param prefix    the start of each segment file name, and the name of the manifest
+	 * @throws IOException if the directory can't be created
+	 */
+	public MappedFileBulkSink(File directory, String prefix) throws IOException {
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Unable to create directory " + directory);
+		}
+		this.directory = directory;
+		this.prefix = prefix;
+		manifest = new File(directory, prefix + ".manifest");
+	}
+
+	/**
+	 * @param maxSegmentBytes the size a segment may not exceed, unless a single body is larger
+	 * @return this
+	 */
+	public synchronized MappedFileBulkSink maxSegmentBytes(long maxSegmentBytes) {
+		if (maxSegmentBytes <= 0) {
+			throw new IllegalArgumentException("Segment size must be positive: " + maxSegmentBytes);
+		}
+		this.maxSegmentBytes = maxSegmentBytes;
+		return this;
+	}
+
+	/**
+	 * @param syncPolicy when to force written data to the disk, {@link SyncPolicy#SEGMENT} by default
+	 * @return this
+	 */
+	public synchronized MappedFileBulkSink syncPolicy(SyncPolicy syncPolicy) {
+		if (null == syncPolicy) {
+			throw new IllegalArgumentException("Sync policy cannot be null");
+		}
+		this.syncPolicy = syncPolicy;
+		return this;
+	}
+
+	@Override
+	public synchronized void flush(byte[] body, int length, int documentCount) throws IOException {
+		if (closed) {
+			throw new IllegalStateException("Sink is closed");
+		}
+		if (channel != null && documents > 0 && written + length > maxSegmentBytes) {
+			finishSegment();
+		}
+		if (channel == null) {
+			startSegment();
+		}
+		if (UNMAPPER == null) {
+			for (ByteBuffer src = ByteBuffer.wrap(body, 0, length); src.hasRemaining(); ) {
+				channel.write(src);
+			}
+		} else {
+			// an oversized body gets a segment to itself, so it may end past the segment size
+			long end = Math.max(maxSegmentBytes, written + length);
+			int offset = 0;
+			while (offset < length) {
+				if (window == null || !window.hasRemaining()) {
+					mapWindow(written + offset, (int) Math.min(WINDOW_BYTES, end - written - offset));
+				}
+				int count = Math.min(length - offset, window.remaining());
+				window.put(body, offset, count);
+				offset += count;
+			}
+		}
+		written += length;
+		documents += documentCount;
+		if (syncPolicy == SyncPolicy.BODY) {
+			if (window != null) {
+				window.force();
+			} else {
+				channel.force(false);
+			}
+		}
+	}
+
+	/**
+	 * Finishes the current segment. Further bodies are rejected.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (!closed) {
+			closed = true;
+			if (channel != null) {
+				finishSegment();
+			}
+		}
+	}
+
+	/**
+	 * @return the finished segments, in the order they were written
+	 */
+	public synchronized List<Segment> getSegments() {
+		return Collections.unmodifiableList(new ArrayList<>(segments));
+	}
+
+	/**
+	 * @return the file the finished segments are listed in
+	 */
+	public File getManifest() {
+		return manifest;
+	}
+
+	private void startSegment() throws IOException {
+		file = new File(directory, String.format("%1$s-%2$06d.ndjson", prefix, segments.size() + 1));
+		channel = new RandomAccessFile(file, "rw").getChannel();
+		channel.truncate(0);
+		written = 0;
+		documents = 0;
+	}
+
+	private void mapWindow(long start, int size) throws IOException {
+		unmapWindow();
+		window = channel.map(FileChannel.MapMode.READ_WRITE, start, size);
+	}
+
+	/**
+	 * Forces the current window, if the sync policy asks for it, and releases its mapping
+	 */
+	private void unmapWindow() throws IOException {
+		if (window == null) {
+			return;
+		}
+		MappedByteBuffer mapped = window;
+		// the buffer must never be touched once unmapped
+		window = null;
+		if (syncPolicy != SyncPolicy.NONE) {
+			mapped.force();
+		}
+		try {
+			UNMAPPER.unmap(mapped);
+		} catch (ReflectiveOperationException ex) {
+			throw new IOException("Unable to unmap " + file, ex);
+		}
+	}
+
+	/**
+	 * Cuts the segment file down to the written bytes, and adds it to the manifest
+	 */
+	private void finishSegment() throws IOException {
+		try {
+			// a file can't be cut down while a region past the new end is still mapped
+			unmapWindow();
+			channel.truncate(written);
+			if (syncPolicy != SyncPolicy.NONE) {
+				channel.force(true);
+			}
+		} finally {
+			channel.close();
+			channel = null;
+		}
+		Segment segment = new Segment(file, written, documents);
+		segments.add(segment);
+		appendToManifest(segment);
+	}
+
+	private void appendToManifest(Segment segment) throws IOException {
+		Utf8JsonOutput line = new Utf8JsonOutput(128);
+		line.beginObject();
+		line.name("file");
+		line.value(segment.getFile().getName());
+		line.name("bytes");
+		line.value(segment.getBytes());
+		line.name("documents");
+		line.value(segment.getDocuments());
+		line.endObject();
+		line.write('\n');
+		try (FileOutputStream out = new FileOutputStream(manifest, segments.size() > 1)) {
+			line.writeTo(out);
+			if (syncPolicy != SyncPolicy.NONE) {
+				out.getFD().sync();
+			}
+		}
+	}
+
+	private static Unmapper findUnmapper() {
+		Unmapper unmapper;
+		try {
+			// JDK 9 and later
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			final Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+			Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			final Object unsafe = theUnsafe.get(null);
+			unmapper = buffer -> invokeCleaner.invoke(unsafe, buffer);
+		} catch (ReflectiveOperationException | RuntimeException ex) {
+			try {
+				// JDK 8
+				final Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+				final Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+				unmapper = buffer -> clean.invoke(cleaner.invoke(buffer));
+			} catch (ReflectiveOperationException | RuntimeException ex8) {
+				if (log.isDebugEnabled()) {
+					log.debug("Mapped buffers cannot be unmapped, writing segments through the channel: " + ex8);
+				}
+				return null;
+			}
+		}
+		try {
+			unmapper.unmap(ByteBuffer.allocateDirect(1));
+			return unmapper;
+		} catch (ReflectiveOperationException | RuntimeException ex) {
+			if (log.isDebugEnabled()) {
+				log.debug("Mapped buffers cannot be unmapped, writing segments through the channel: " + ex);
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Releases the mapping of a buffer, which must not be used afterwards
+	 */
+	private interface Unmapper {
+		void unmap(ByteBuffer buffer) throws ReflectiveOperationException;
+	}
+
+	/**
+	 * A finished segment file
+	 */
+	public static final class Segment {
+		private final File file;
+		private final long bytes;
+		private final int documents;
+
+		Segment(File file, long bytes, int documents) {
+			this.file = file;
+			this.bytes = bytes;
+			this.documents = documents;
+		}
+
+		public File getFile() {
+			return file;
+		}
+
+		public long getBytes() {
+			return bytes;
+		}
+
+		public int getDocuments() {
+			return documents;
+		}
+
+		@Override
+		public String toString() {
+			return file.getName() + " (" + bytes + " bytes, " + documents + " documents)";
+		}
+	}
+}
@@ -0,0 +1,231 @@
+/*
+ * MappingCache.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * A bounded, least recently used cache of compiled mappings, for switching between many type mappings, e.g. one per
+ * tenant. Mappings are keyed by the type name, the options, and a 64 bit structural hash of the type's mapping JSON,
+ * so an equal mapping parsed again is found too, whatever the order of its properties. Hashing walks the JSON once,
+ * which is much cheaper than compiling it. Two different mappings of the same type are only confused if their hashes
+ * collide, which is about as likely as 2<sup>-64</sup> per pair. Threadsafe, and can be shared by several converters.
+ */
+public final class MappingCache {
+
+	/** Default maximum number of compiled mappings kept */
+	public static final int DEFAULT_MAX_SIZE = 1024;
+
+	private final Map<Key, LucesMapping> mappings;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	public MappingCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * @param maxSize the number of compiled mappings kept, after which the least recently used one is dropped
+	 */
+	public MappingCache(final int maxSize) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+		}
+		mappings = new LinkedHashMap<Key, LucesMapping>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Entry<Key, LucesMapping> eldest) {
+				if (size() > maxSize) {
+					evictions.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * @return the compiled mapping with the default options, from the cache if it was compiled before
+	 * @see LucesMapping#compile(String, JsonObject)
+	 */
+	public LucesMapping compile(String typeName, JsonObject mapping) {
+		return compile(LucesMapping.UNMAPPED, typeName, mapping);
+	}
+
+	/**
+	 * @param options  a mapping whose options are used for the result
+	 * @param typeName Name of the type. If it or the mapping is null, the result has no type mapping and isn't cached
+	 * @param mapping  mapping JSON object
+	 * @return the compiled mapping with the options of the given one, from the cache if it was compiled before
+	 * @see LucesMapping#withMapping(String, JsonObject)
+	 */
+	public LucesMapping compile(LucesMapping options, String typeName, JsonObject mapping) {
+		if (null == typeName || null == mapping) {
+			return options.withMapping(typeName, mapping);
+		}
+		Key key = new Key(typeName, hash(mapping.get(typeName)), options);
+		LucesMapping compiled;
+		synchronized (mappings) {
+			compiled = mappings.get(key);
+		}
+		if (compiled != null) {
+			hits.incrementAndGet();
+			return compiled;
+		}
+		misses.incrementAndGet();
+		// compiled outside the lock: another thread may compile the same mapping, which is harmless
+		compiled = options.withMapping(typeName, mapping);
+		synchronized (mappings) {
+			mappings.put(key, compiled);
+		}
+		return compiled;
+	}
+
+	/**
+	 * @return the number of compilations answered from the cache
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return the number of compilations that weren't in the cache
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * @return the number of compiled mappings dropped to stay within the size
+	 */
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	/**
+	 * @return the number of compiled mappings currently kept
+	 */
+	public int size() {
+		synchronized (mappings) {
+			return mappings.size();
+		}
+	}
+
+	/**
+	 * Drops all compiled mappings, e.g. after mappings were changed in place. The statistics are kept.
+	 */
+	public void clear() {
+		synchronized (mappings) {
+			mappings.clear();
+		}
+	}
+
+	/**
+	 * @return a hash of the JSON that doesn't depend on the order of object members, 0 for null
+	 */
+	static long hash(JsonElement element) {
+		if (element == null || element.isJsonNull()) {
+			return 0;
+		} else if (element.isJsonObject()) {
+			long hash = 0x6f626a656374L;
+			// a sum of the members, so their order doesn't matter
+			for (Entry<String, JsonElement> member : element.getAsJsonObject().entrySet()) {
+				hash += mix(hash(member.getKey()) * 31 + hash(member.getValue()));
+			}
+			return mix(hash);
+		} else if (element.isJsonArray()) {
+			long hash = 0x6172726179L;
+			JsonArray array = element.getAsJsonArray();
+			for (int i = 0; i < array.size(); ++i) {
+				hash = hash * 31 + hash(array.get(i));
+			}
+			return mix(hash);
+		}
+		JsonPrimitive primitive = element.getAsJsonPrimitive();
+		long kind = primitive.isString() ? 1 : primitive.isNumber() ? 2 : 3;
+		return mix(hash(primitive.getAsString()) + kind);
+	}
+
+	/**
+	 * @return the 64 bit FNV-1a hash of the characters
+	 */
+	private static long hash(String value) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < value.length(); ++i) {
+			hash ^= value.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	/**
+	 * The finalizer of MurmurHash3, which spreads every input bit over the whole hash
+	 */
+	private static long mix(long hash) {
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+	private static final class Key {
+		private final String typeName;
+		private final long hash;
+		private final boolean useDefaults;
+		private final boolean useNull;
+		private final boolean errIfMappingNull;
+		private final boolean nestedObjects;
+
+		Key(String typeName, long hash, LucesMapping options) {
+			this.typeName = typeName;
+			this.hash = hash;
+			useDefaults = options.isUseDefaultsForEmpty();
+			useNull = options.isUseNullForEmpty();
+			errIfMappingNull = options.isErrorIfMappingIsNull();
+			nestedObjects = options.isNestedObjects();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) o;
+			return hash == other.hash && typeName.equals(other.typeName) && useDefaults == other.useDefaults
+					&& useNull == other.useNull && errIfMappingNull == other.errIfMappingNull
+					&& nestedObjects == other.nestedObjects;
+		}
+
+		@Override
+		public int hashCode() {
+			return (int) (hash ^ (hash >>> 32));
+		}
+	}
+}
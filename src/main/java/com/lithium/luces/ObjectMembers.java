@@ -0,0 +1,102 @@
+/*
+ * ObjectMembers.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.lucene.document.Fieldable;
+
+/**
+ * The members of each object of a mapping in one document, as linked lists in first occurrence order. A member is the
+ * index of the first field of a name, or the complement of a nested object's id. Fields that aren't in the mapping are
+ * members of the root. The arrays are reused from document to document, so they are only valid up to the sizes of the
+ * last {@link #build(LucesMapping, List, int[], int)}.
+ */
+final class ObjectMembers {
+	/** Ends a list */
+	static final int LAST = -1;
+	/** Marks a field that is skipped, or already written as part of the array of its name */
+	static final int SEEN = -2;
+
+	/** Per field index, the descriptor of the first field of a name */
+	FieldDescriptor[] descriptors = new FieldDescriptor[0];
+	/** Per object id, the first entry, or {@link #LAST} if none of its fields are in the document */
+	int[] first = new int[0];
+	int[] member = new int[0];
+	/** Per entry, the next entry of the same object, or {@link #LAST} */
+	int[] following = new int[0];
+	private int[] last = new int[0];
+	private boolean[] repeated = new boolean[0];
+
+	/**
+	 * @param next per field index, the index of the next field with that name, {@link #LAST}, or {@link #SEEN} for
+	 *             a skipped field
+	 */
+	void build(LucesMapping mapping, List<Fieldable> docFields, int[] next, int count) {
+		PathNode[] nodes = mapping.getPathNodes();
+		int objects = nodes.length;
+		if (descriptors.length < count) {
+			descriptors = new FieldDescriptor[count];
+			repeated = new boolean[count];
+		}
+		if (first.length < objects) {
+			first = new int[objects];
+			last = new int[objects];
+		}
+		if (member.length < count + objects) {
+			member = new int[count + objects];
+			following = new int[count + objects];
+		}
+		Arrays.fill(first, 0, objects, LAST);
+		Arrays.fill(repeated, 0, count, false);
+		int entries = 0;
+		for (int i = 0; i < count; ++i) {
+			if (repeated[i] || next[i] == SEEN) {
+				continue;
+			}
+			for (int j = next[i]; j != LAST; j = next[j]) {
+				repeated[j] = true;
+			}
+			FieldDescriptor descriptor = mapping.getField(docFields.get(i).name());
+			descriptors[i] = descriptor;
+			PathNode node = descriptor == null ? nodes[0] : descriptor.getParent();
+			int added = i;
+			// add the field to its object, and each object that wasn't seen yet to its parent
+			while (true) {
+				int id = node.getId();
+				boolean seen = first[id] != LAST;
+				member[entries] = added;
+				following[entries] = LAST;
+				if (seen) {
+					following[last[id]] = entries;
+				} else {
+					first[id] = entries;
+				}
+				last[id] = entries++;
+				if (seen || node.getParent() == null) {
+					break;
+				}
+				added = ~id;
+				node = node.getParent();
+			}
+		}
+	}
+}
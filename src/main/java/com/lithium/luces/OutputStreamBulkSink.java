@@ -0,0 +1,41 @@
+/*
+ * OutputStreamBulkSink.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes every bulk chunk to an output stream, and flushes the stream at the end of each chunk
+ */
+public class OutputStreamBulkSink implements BulkSink {
+
+	private final OutputStream out;
+
+	public OutputStreamBulkSink(OutputStream out) {
+		this.out = out;
+	}
+
+	@Override
+	public void flush(byte[] body, int length, int documentCount) throws IOException {
+		out.write(body, 0, length);
+		out.flush();
+	}
+}
@@ -0,0 +1,389 @@
+/*
+ * ParseType.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.io.IOException;
+
+/**
+ * Elasticsearch field types that Luces converts string values to. Each type writes and converts non null values for
+ * a {@link FieldDescriptor}, so the per field hot path is a single virtual call instead of a switch.
+ */
+public enum ParseType {
+	BYTE(Numeric.INTEGRAL, Byte.MIN_VALUE, Byte.MAX_VALUE) {
+		@Override
+		void write(FieldDescriptor field, String value, DocumentOutput out) throws IOException {
+			out.value(field.toLong(value));
+		}
+
+		@Override
+		Object convert(FieldDescriptor field, String value) {
+			return field.toLong(value);
+		}
+	},
+	SHORT(Numeric.INTEGRAL, Short.MIN_VALUE, Short.MAX_VALUE) {
+		@Override
+		void write(FieldDescriptor field, String value, DocumentOutput out) throws IOException {
+			out.value(field.toLong(value));
+		}
+
+		@Override
+		Object convert(FieldDescriptor field, String value) {
+			return field.toLong(value);
+		}
+	},
+	INTEGER(Numeric.INTEGRAL, Integer.MIN_VALUE, Integer.MAX_VALUE) {
+		@Override
+		void write(FieldDescriptor field, String value, DocumentOutput out) throws IOException {
+			out.value(field.toLong(value));
+		}
+
+		@Override
+		Object convert(FieldDescriptor field, String value) {
+			return field.toLong(value);
+		}
+	},
+	LONG(Numeric.INTEGRAL) {
+		@Override
+		void write(FieldDescriptor field, String value, DocumentOutput out) throws IOException {
+			out.value(field.toLong(value));
+		}
+
+		@Override
+		Object convert(FieldDescriptor field, String value) {
+			return field.toLong(value);
+		}
+	},
+	FLOAT(Numeric.FLOATING) {
+		@Override
+		void write(FieldDescriptor field, String value, DocumentOutput out) throws IOException {
+			out.value(field.toFloat(value));
+		}
+
+		@Override
+		Object convert(FieldDescriptor field, String value) {
+			return field.toFloat(value);
+		}
+	},
+	DOUBLE(Numeric.FLOATING) {
+		@Override
+		void write(FieldDescriptor field, String value, DocumentOutput out) throws IOException {
+			out.value(field.toDouble(value));
+		}
+
+		@Override
+		Object convert(FieldDescriptor field, String value) {
+			return field.toDouble(value);
+		}
+	},
+	BOOLEAN(Numeric.NONE) {
+		@Override
+		void write(FieldDescriptor field, String value, DocumentOutput out) throws IOException {
+			out.value(ValueParser.parseBoolean(value));
+		}
+
+		@Override
+		Object convert(FieldDescriptor field, String value) {
+			// anything that doesn't match the string "true" ignoring case evaluates to false
+			return ValueParser.parseBoolean(value);
+		}
+	},
+	HALF_FLOAT(Numeric.FLOATING) {
+		@Override
+		void write(FieldDescriptor field, String value, DocumentOutput out) throws IOException {
+			out.value(field.toDouble(value));
+		}
+
+		@Override
+		Object convert(FieldDescriptor field, String value) {
+			return field.toDouble(value);
+		}
+	},
+	SCALED_FLOAT(Numeric.FLOATING) {
+		@Override
+		void write(FieldDescriptor field, String value, DocumentOutput out) throws IOException {
+			out.value(field.toDouble(value));
+		}
+
+		@Override
+		Object convert(FieldDescriptor field, String value) {
+			return field.toDouble(value);
+		}
+	},
+	TOKEN_COUNT(Numeric.INTEGRAL) {
+		@Override
+		void write(FieldDescriptor field, String value, DocumentOutput out) throws IOException {
+			out.value(field.toLong(value));
+		}
+
+		@Override
+		Object convert(FieldDescriptor field, String value) {
+			return field.toLong(value);
+		}
+	},
+	DATE(Numeric.NONE) {
+		@Override
+		void write(FieldDescriptor field, String value, DocumentOutput out) throws IOException {
+			field.getDateFormat().write(field, value, out);
+		}
+
+		@Override
+		Object convert(FieldDescriptor field, String value) {
+			return field.getDateFormat().convert(field, value);
+		}
+
+		@Override
+		void write(FieldDescriptor field, Number value, DocumentOutput out) throws IOException {
+			if (isIntegral(value)) {
+				// epoch milliseconds
+				field.getDateFormat().writeMillis(value.longValue(), out);
+			} else {
+				write(field, value.toString(), out);
+			}
+		}
+
+		@Override
+		Object convert(FieldDescriptor field, Number value) {
+			return isIntegral(value) ? field.getDateFormat().convertMillis(value.longValue())
+					: convert(field, value.toString());
+		}
+	},
+	IP(Numeric.NONE) {
+		@Override
+		void write(FieldDescriptor field, String value, DocumentOutput out) throws IOException {
+			out.value(field.toIp(value));
+		}
+
+		@Override
+		Object convert(FieldDescriptor field, String value) {
+			return field.toIp(value);
+		}
+	},
+	STRING(Numeric.NONE) {
+		@Override
+		void write(FieldDescriptor field, String value, DocumentOutput out) throws IOException {
+			out.value(value);
+		}
+
+		@Override
+		Object convert(FieldDescriptor field, String value) {
+			// leave as untrimmed string
+			return value;
+		}
+	},
+	TEXT(Numeric.NONE) {
+		@Override
+		void write(FieldDescriptor field, String value, DocumentOutput out) throws IOException {
+			out.value(value);
+		}
+
+		@Override
+		Object convert(FieldDescriptor field, String value) {
+			return value;
+		}
+	},
+	KEYWORD(Numeric.NONE) {
+		@Override
+		void write(FieldDescriptor field, String value, DocumentOutput out) throws IOException {
+			out.value(value);
+		}
+
+		@Override
+		Object convert(FieldDescriptor field, String value) {
+			return value;
+		}
+	},
+	BINARY(Numeric.NONE) {
+		@Override
+		void write(FieldDescriptor field, String value, DocumentOutput out) throws IOException {
+			out.value(value);
+		}
+
+		@Override
+		Object convert(FieldDescriptor field, String value) {
+			// already base64, as Elasticsearch expects
+			return value;
+		}
+	},
+	GEO_POINT(Numeric.NONE) {
+		@Override
+		void write(FieldDescriptor field, String value, DocumentOutput out) throws IOException {
+			out.value(value);
+		}
+
+		@Override
+		Object convert(FieldDescriptor field, String value) {
+			// "lat,lon" or a geohash, which Elasticsearch parses
+			return value;
+		}
+	};
+
+	/**
+	 * How numbers of numeric fields can be taken as they are, and how string values are checked
+	 */
+	private enum Numeric {
+		/** Converted from their string form */
+		NONE,
+		/** Integers are written as they are, anything else is converted from its string form */
+		INTEGRAL,
+		/** All numbers are written as they are */
+		FLOATING
+	}
+
+	private final Numeric numeric;
+	/** The range of integral types */
+	private final long minValue;
+	private final long maxValue;
+
+	ParseType(Numeric numeric) {
+		this(numeric, Long.MIN_VALUE, Long.MAX_VALUE);
+	}
+
+	ParseType(Numeric numeric, long minValue, long maxValue) {
+		this.numeric = numeric;
+		this.minValue = minValue;
+		this.maxValue = maxValue;
+	}
+
+	/**
+	 * @return the smallest value of an integral type, e.g. -128 for a byte
+	 */
+	long getMinValue() {
+		return minValue;
+	}
+
+	/**
+	 * @return the largest value of an integral type, e.g. 127 for a byte
+	 */
+	long getMaxValue() {
+		return maxValue;
+	}
+
+	/**
+	 * Writes the converted value
+	 *
+	 * @param value a non null value
+	 */
+	abstract void write(FieldDescriptor field, String value, DocumentOutput out) throws IOException;
+
+	/**
+	 * @param value a non null value
+	 * @return the boxed converted value
+	 */
+	abstract Object convert(FieldDescriptor field, String value);
+
+	/**
+	 * Writes the converted number of a Lucene numeric field, which numeric types take without a string round trip.
+	 * Anything else converts the number's string form, as if it had been stored as a string.
+	 *
+	 * @param value a non null number
+	 */
+	void write(FieldDescriptor field, Number value, DocumentOutput out) throws IOException {
+		if (numeric == Numeric.INTEGRAL && isIntegral(value)) {
+			out.value(field.toLong(value.longValue()));
+		} else if (numeric == Numeric.FLOATING && value instanceof Float) {
+			out.value(field.toFloat(value.floatValue()));
+		} else if (numeric == Numeric.FLOATING) {
+			out.value(this == FLOAT ? field.toFloat(value.doubleValue()) : field.toDouble(value.doubleValue()));
+		} else {
+			write(field, value.toString(), out);
+		}
+	}
+
+	/**
+	 * @param value a non null number
+	 * @return the boxed converted number of a Lucene numeric field
+	 * @see #write(FieldDescriptor, Number, DocumentOutput)
+	 */
+	Object convert(FieldDescriptor field, Number value) {
+		if (numeric == Numeric.INTEGRAL && isIntegral(value)) {
+			return field.toLong(value.longValue());
+		} else if (numeric == Numeric.FLOATING && value instanceof Float) {
+			// the double with the float's shortest decimal form, as if it had been parsed from the string
+			return Double.parseDouble(Float.toString(field.toFloat(value.floatValue())));
+		} else if (numeric == Numeric.FLOATING) {
+			return this == FLOAT ? field.toFloat(value.doubleValue()) : field.toDouble(value.doubleValue());
+		}
+		return convert(field, value.toString());
+	}
+
+	/**
+	 * Checks a value without converting it, so an invalid value can be handled without an exception. Numbers are
+	 * checked exactly, including the range of the type. Other types accept any value here, and throw for the rare
+	 * invalid one when it is written.
+	 *
+	 * @param value a non null value
+	 * @return false if converting the value would fail
+	 */
+	boolean isValid(FieldDescriptor field, String value) {
+		if (numeric == Numeric.NONE
+				|| (field.getEmptyValue() == FieldDescriptor.EmptyValue.DEFAULT && ValueParser.isBlank(value))) {
+			return true;
+		} else if (numeric == Numeric.INTEGRAL) {
+			return ValueParser.isLong(value, minValue, maxValue);
+		}
+		return ValueParser.isDouble(value)
+				&& (this != FLOAT || !Float.isInfinite((float) ValueParser.parseDouble(value)));
+	}
+
+	/**
+	 * @param value a non null value that isn't {@link #isValid(FieldDescriptor, String) valid}
+	 * @return true if the value is a number, just out of the range of the type
+	 */
+	boolean isOutOfRange(String value) {
+		if (numeric == Numeric.INTEGRAL) {
+			return ValueParser.isLong(value);
+		}
+		return numeric == Numeric.FLOATING && ValueParser.isDouble(value);
+	}
+
+	/**
+	 * @return the default of the type, boxed: 0 for numbers, false for booleans, and null for anything else
+	 */
+	Object defaultValue() {
+		if (numeric == Numeric.INTEGRAL) {
+			return 0L;
+		} else if (numeric == Numeric.FLOATING) {
+			return 0.0;
+		}
+		return this == BOOLEAN ? Boolean.FALSE : null;
+	}
+
+	/**
+	 * Writes the {@link #defaultValue()} of the type
+	 */
+	void writeDefault(DocumentOutput out) throws IOException {
+		if (numeric == Numeric.INTEGRAL) {
+			out.value(0L);
+		} else if (numeric == Numeric.FLOATING) {
+			out.value(0.0);
+		} else if (this == BOOLEAN) {
+			out.value(false);
+		} else {
+			out.nullValue();
+		}
+	}
+
+	/**
+	 * @return whether the number of a numeric field is an int or long
+	 */
+	private static boolean isIntegral(Number value) {
+		return value instanceof Long || value instanceof Integer;
+	}
+}
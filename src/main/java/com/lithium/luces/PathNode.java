@@ -0,0 +1,61 @@
+/*
+ * PathNode.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+/**
+ * An object in a compiled mapping, e.g. {@code author} for the {@code author.name} field. Together the nodes form a
+ * trie of the mapping's object paths, which fields point into through their parent, so nested output needs no string
+ * splitting. Immutable.
+ */
+final class PathNode {
+
+	private final int id;
+	private final JsonKey key;
+	private final PathNode parent;
+
+	/**
+	 * @param id     the index of the node in its mapping, 0 for the root
+	 * @param name   the last path segment, or null for the root
+	 * @param parent the enclosing object, or null for the root
+	 */
+	PathNode(int id, String name, PathNode parent) {
+		this.id = id;
+		this.key = name == null ? null : new JsonKey(name);
+		this.parent = parent;
+	}
+
+	int getId() {
+		return id;
+	}
+
+	/**
+	 * @return the member name of the object in its parent
+	 */
+	JsonKey getKey() {
+		return key;
+	}
+
+	/**
+	 * @return the enclosing object, or null for the root
+	 */
+	PathNode getParent() {
+		return parent;
+	}
+}
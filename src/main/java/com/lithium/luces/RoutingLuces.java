@@ -0,0 +1,185 @@
+/*
+ * RoutingLuces.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.util.Version;
+
+/**
+ * A converter for indexes that mix several document types. Each document is converted with the mapping registered for
+ * its type, which is read from a discriminator field, e.g. a stored {@code _type} field, or picked by a {@link Router}.
+ * Picking a mapping is a hash lookup, so documents of any type can be converted in any order. Documents whose type
+ * has no mapping are converted with the fallback mapping, or rejected if there is none.
+ * <p>
+ * Mappings can be registered and replaced while conversions are in flight, so a converter can be shared by any number
+ * of threads like a {@link ConcurrentLuces}. {@link #getFieldValue(String, String)} has no document to route by, and
+ * uses the fallback mapping.
+ */
+public class RoutingLuces extends AbstractLucesConverter {
+
+	/**
+	 * Picks the type of a document
+	 */
+	public interface Router {
+
+		/**
+		 * @param doc the document about to be converted
+		 * @return the type to convert the document as, or null if it has none
+		 */
+		String route(Document doc);
+	}
+
+	private final Router router;
+	private final ConcurrentHashMap<String, LucesMapping> mappings = new ConcurrentHashMap<>();
+	private volatile LucesMapping fallback;
+
+	/**
+	 * @param version            the Lucene version, which must be 3.6
+	 * @param discriminatorField the stored field whose value is the type of a document
+	 */
+	public RoutingLuces(Version version, final String discriminatorField) {
+		this(version, new Router() {
+			@Override
+			public String route(Document doc) {
+				return doc.get(discriminatorField);
+			}
+		});
+		if (null == discriminatorField) {
+			throw new IllegalArgumentException("Discriminator field cannot be null");
+		}
+	}
+
+	/**
+	 * @param version the Lucene version, which must be 3.6
+	 * @param router  picks the type of each document
+	 */
+	public RoutingLuces(Version version, Router router) {
+		super(version);
+		if (null == router) {
+			throw new IllegalArgumentException("Router cannot be null");
+		}
+		this.router = router;
+	}
+
+	/**
+	 * Registers a mapping under its own type name
+	 *
+	 * @param mapping a compiled mapping with a type
+	 * @return this
+	 */
+	public RoutingLuces register(LucesMapping mapping) {
+		if (null == mapping || !mapping.isMapped()) {
+			throw new IllegalArgumentException("Compiled mapping must have a type");
+		}
+		return register(mapping.getTypeName(), mapping);
+	}
+
+	/**
+	 * Registers a mapping for documents of a type, replacing the one registered before
+	 *
+	 * @param type    the type, as found in the discriminator field or returned by the router
+	 * @param mapping the compiled mapping to convert documents of the type with
+	 * @return this
+	 */
+	public RoutingLuces register(String type, LucesMapping mapping) {
+		if (null == type || null == mapping) {
+			throw new IllegalArgumentException("Type and compiled mapping cannot be null");
+		}
+		mappings.put(type, mapping);
+		return this;
+	}
+
+	/**
+	 * @param type the type whose mapping to remove
+	 * @return the mapping that was registered for the type, or null if there was none
+	 */
+	public LucesMapping unregister(String type) {
+		return mappings.remove(type);
+	}
+
+	/**
+	 * @param mapping the mapping for documents without a type, or with a type that has no mapping. Null, the default,
+	 *                rejects them
+	 * @return this
+	 */
+	public RoutingLuces fallback(LucesMapping mapping) {
+		fallback = mapping;
+		return this;
+	}
+
+	/**
+	 * @return the registered mappings by type
+	 */
+	public Map<String, LucesMapping> getMappings() {
+		return Collections.unmodifiableMap(mappings);
+	}
+
+	/**
+	 * @param doc a document
+	 * @return the mapping the document is converted with
+	 * @throws NoSuchElementException if the document's type has no mapping, and there is no fallback
+	 */
+	public LucesMapping route(Document doc) {
+		String type = router.route(doc);
+		LucesMapping mapping = null == type ? null : mappings.get(type);
+		if (null == mapping) {
+			mapping = fallback;
+			if (null == mapping) {
+				throw new NoSuchElementException(null == type ? "Document has no type"
+						: "No mapping registered for type " + type);
+			}
+		}
+		return mapping;
+	}
+
+	@Override
+	public RoutingLuces conversionListener(ConversionListener listener) {
+		super.conversionListener(listener);
+		return this;
+	}
+
+	@Override
+	public RoutingLuces projection(FieldProjection projection) {
+		super.projection(projection);
+		return this;
+	}
+
+	@Override
+	public RoutingLuces errorHandling(ErrorHandling errorHandling) {
+		super.errorHandling(errorHandling);
+		return this;
+	}
+
+	@Override
+	LucesMapping currentMapping() {
+		LucesMapping mapping = fallback;
+		return null == mapping ? LucesMapping.UNMAPPED : mapping;
+	}
+
+	@Override
+	LucesMapping currentMapping(Document doc) {
+		return route(doc);
+	}
+}
@@ -0,0 +1,143 @@
+/*
+ * UnmappedFields.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Counts the values of fields that have no type in the mapping and were converted as strings. Each field name is
+ * logged once, when it is first seen, instead of once per value; optionally the counts are also logged at an interval.
+ * At most {@link #MAX_TRACKED_FIELDS} names are counted on their own, so documents with generated field names can't
+ * fill the heap or the log; values of any further names are only counted together, and logged once. Threadsafe.
+ */
+public final class UnmappedFields {
+	private static final Logger log = LoggerFactory.getLogger(UnmappedFields.class);
+
+	/** The most field names counted on their own */
+	public static final int MAX_TRACKED_FIELDS = 1000;
+
+	private final ConcurrentMap<String, AtomicLong> counts = new ConcurrentHashMap<>();
+	/** Values of the names past {@link #MAX_TRACKED_FIELDS} */
+	private final AtomicLong untracked = new AtomicLong();
+	private final AtomicBoolean untrackedLogged = new AtomicBoolean();
+	private volatile long logIntervalNanos;
+	private final AtomicLong nextLog = new AtomicLong();
+
+	UnmappedFields() {
+	}
+
+	/**
+	 * Counts a value of an unmapped field
+	 */
+	void record(String name, String value) {
+		AtomicLong count = counts.get(name);
+		if (count == null && counts.size() >= MAX_TRACKED_FIELDS) {
+			// a racing thread may still add a few names past the cap
+			count = untracked;
+			if (untrackedLogged.compareAndSet(false, true)) {
+				log.warn("More than {} unmapped fields, parsing \"{}\" of field {} as a string. Values of this and "
+						+ "further new fields are only counted together", MAX_TRACKED_FIELDS, value, name);
+			}
+		} else if (count == null) {
+			AtomicLong first = new AtomicLong();
+			count = counts.putIfAbsent(name, first);
+			if (count == null) {
+				count = first;
+				log.warn("Field {} has no type association, parsing \"{}\" as a string. Further values are only counted",
+						name, value);
+			}
+		}
+		count.incrementAndGet();
+		long interval = logIntervalNanos;
+		if (interval > 0) {
+			logIfDue(interval);
+		}
+	}
+
+	/**
+	 * Also logs all counts at most once per interval, while unmapped fields keep coming in
+	 *
+	 * @param interval the interval, or 0 to only log each field when it is first seen
+	 * @param unit     the unit of the interval
+	 * @return this
+	 */
+	public UnmappedFields logInterval(long interval, TimeUnit unit) {
+		if (interval < 0) {
+			throw new IllegalArgumentException("Interval cannot be negative: " + interval);
+		}
+		logIntervalNanos = unit.toNanos(interval);
+		nextLog.set(System.nanoTime() + logIntervalNanos);
+		return this;
+	}
+
+	/**
+	 * @return the number of values per unmapped field name since the converter was created or reset, sorted by name
+	 */
+	public Map<String, Long> snapshot() {
+		Map<String, Long> snapshot = new TreeMap<>();
+		for (Entry<String, AtomicLong> entry : counts.entrySet()) {
+			snapshot.put(entry.getKey(), entry.getValue().get());
+		}
+		return Collections.unmodifiableMap(snapshot);
+	}
+
+	/**
+	 * @return the number of values of the unmapped field names past {@link #MAX_TRACKED_FIELDS}, which are not in the
+	 *         {@link #snapshot()}
+	 */
+	public long getUntrackedCount() {
+		return untracked.get();
+	}
+
+	/**
+	 * Forgets all counts, so every unmapped field is logged again when it is next seen
+	 */
+	public void reset() {
+		counts.clear();
+		untracked.set(0);
+		untrackedLogged.set(false);
+	}
+
+	private void logIfDue(long interval) {
+		long now = System.nanoTime();
+		long due = nextLog.get();
+		// only the thread that moves the deadline logs
+		if (now - due >= 0 && nextLog.compareAndSet(due, now + interval)) {
+			long others = untracked.get();
+			if (others > 0) {
+				log.warn("Values converted as strings for unmapped fields: {}, and {} for further fields", snapshot(),
+						others);
+			} else {
+				log.warn("Values converted as strings for unmapped fields: {}", snapshot());
+			}
+		}
+	}
+}
@@ -0,0 +1,366 @@
+/*
+ * Utf8JsonOutput.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Writes compact JSON as UTF-8 straight into a growable byte array, with the same escaping as a default Gson
+ * instance (HTML safe) writing through a UTF-8 {@link java.io.OutputStreamWriter}, so the bytes are identical.
+ * Compiled fields are written with their pre-encoded keys. It is also an output stream, for raw bytes.
+ */
+final class Utf8JsonOutput extends OutputStream implements DocumentOutput {
+
+	/** Escape sequences for ASCII characters, null for characters written as they are */
+	private static final byte[][] REPLACEMENTS = new byte[128][];
+	private static final byte[] LINE_SEPARATOR = ascii("\\u2028");
+	private static final byte[] PARAGRAPH_SEPARATOR = ascii("\\u2029");
+	private static final byte[] TRUE = ascii("true");
+	private static final byte[] FALSE = ascii("false");
+	private static final byte[] NULL = ascii("null");
+	/** What a UTF-8 OutputStreamWriter writes for an unpaired surrogate */
+	private static final byte MALFORMED = '?';
+
+	static {
+		for (int i = 0; i < 0x20; ++i) {
+			REPLACEMENTS[i] = ascii(String.format("\\u%04x", i));
+		}
+		REPLACEMENTS['"'] = ascii("\\\"");
+		REPLACEMENTS['\\'] = ascii("\\\\");
+		REPLACEMENTS['\t'] = ascii("\\t");
+		REPLACEMENTS['\b'] = ascii("\\b");
+		REPLACEMENTS['\n'] = ascii("\\n");
+		REPLACEMENTS['\r'] = ascii("\\r");
+		REPLACEMENTS['\f'] = ascii("\\f");
+		REPLACEMENTS['<'] = ascii("\\u003c");
+		REPLACEMENTS['>'] = ascii("\\u003e");
+		REPLACEMENTS['&'] = ascii("\\u0026");
+		REPLACEMENTS['='] = ascii("\\u003d");
+		REPLACEMENTS['\''] = ascii("\\u0027");
+	}
+
+	private byte[] buf;
+	private int count;
+	/** Per nesting level, whether nothing has been written in it yet */
+	private boolean[] empty = new boolean[8];
+	private int depth;
+	private JsonKey deferredKey;
+	private String deferredName;
+
+	Utf8JsonOutput(int initialCapacity) {
+		buf = new byte[initialCapacity];
+	}
+
+	/**
+	 * @return the quoted, escaped name followed by a colon, as UTF-8
+	 */
+	static byte[] encodeKey(String name) {
+		Utf8JsonOutput key = new Utf8JsonOutput(name.length() + 3);
+		key.string(name);
+		key.write(':');
+		return Arrays.copyOf(key.buf, key.count);
+	}
+
+	private static byte[] ascii(String value) {
+		return value.getBytes(StandardCharsets.US_ASCII);
+	}
+
+	@Override
+	public void beginObject() {
+		beforeValue();
+		open('{');
+	}
+
+	@Override
+	public void endObject() {
+		close('}');
+	}
+
+	@Override
+	public void beginArray() {
+		beforeValue();
+		open('[');
+	}
+
+	@Override
+	public void endArray() {
+		close(']');
+	}
+
+	@Override
+	public void name(JsonKey key) {
+		deferredKey = key;
+	}
+
+	@Override
+	public void name(String name) {
+		deferredName = name;
+	}
+
+	@Override
+	public void nullValue() {
+		if (deferredKey != null || deferredName != null) {
+			// null members are left out
+			deferredKey = null;
+			deferredName = null;
+			return;
+		}
+		beforeValue();
+		write(NULL);
+	}
+
+	@Override
+	public void value(long value) {
+		beforeValue();
+		ensureCapacity(20);
+		if (value == Long.MIN_VALUE) {
+			write(ascii(Long.toString(value)));
+			return;
+		}
+		if (value < 0) {
+			buf[count++] = '-';
+			value = -value;
+		}
+		int digits = 1;
+		for (long rest = value / 10; rest > 0; rest /= 10) {
+			++digits;
+		}
+		count += digits;
+		for (int pos = count - 1; pos >= count - digits; --pos) {
+			buf[pos] = (byte) ('0' + value % 10);
+			value /= 10;
+		}
+	}
+
+	@Override
+	public void value(double value) {
+		if (Double.isNaN(value) || Double.isInfinite(value)) {
+			throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+		}
+		beforeValue();
+		writeAscii(Double.toString(value));
+	}
+
+	@Override
+	public void value(float value) {
+		if (Float.isNaN(value) || Float.isInfinite(value)) {
+			throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+		}
+		beforeValue();
+		writeAscii(Float.toString(value));
+	}
+
+	@Override
+	public void value(boolean value) {
+		beforeValue();
+		write(value ? TRUE : FALSE);
+	}
+
+	@Override
+	public void value(String value) {
+		if (value == null) {
+			nullValue();
+			return;
+		}
+		beforeValue();
+		string(value);
+	}
+
+	@Override
+	public void binaryValue(byte[] bytes, int offset, int length) {
+		beforeValue();
+		byte[] escapedPadding = REPLACEMENTS['='];
+		ensureCapacity(Base64Encoder.encodedLength(length) + 2 * escapedPadding.length + 2);
+		buf[count++] = '"';
+		count = Base64Encoder.encode(bytes, offset, length, buf, count);
+		// the padding is escaped, like any '=' in an HTML safe string
+		int padding = (3 - length % 3) % 3;
+		count -= padding;
+		for (int i = 0; i < padding; ++i) {
+			write(escapedPadding);
+		}
+		buf[count++] = '"';
+	}
+
+	/**
+	 * Writes a quoted, escaped string without any separator
+	 */
+	void string(String value) {
+		int length = value.length();
+		ensureCapacity(length + 2);
+		buf[count++] = '"';
+		for (int i = 0; i < length; ++i) {
+			char c = value.charAt(i);
+			if (count + 6 > buf.length) {
+				ensureCapacity(Math.max(6, length - i + 1));
+			}
+			if (c < 0x80) {
+				byte[] replacement = REPLACEMENTS[c];
+				if (replacement == null) {
+					buf[count++] = (byte) c;
+				} else {
+					System.arraycopy(replacement, 0, buf, count, replacement.length);
+					count += replacement.length;
+				}
+			} else if (c < 0x800) {
+				buf[count++] = (byte) (0xc0 | (c >> 6));
+				buf[count++] = (byte) (0x80 | (c & 0x3f));
+			} else if (c == '\u2028') {
+				write(LINE_SEPARATOR);
+			} else if (c == '\u2029') {
+				write(PARAGRAPH_SEPARATOR);
+			} else if (Character.isSurrogate(c)) {
+				if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+					int codePoint = Character.toCodePoint(c, value.charAt(++i));
+					buf[count++] = (byte) (0xf0 | (codePoint >> 18));
+					buf[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+					buf[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+					buf[count++] = (byte) (0x80 | (codePoint & 0x3f));
+				} else {
+					buf[count++] = MALFORMED;
+				}
+			} else {
+				buf[count++] = (byte) (0xe0 | (c >> 12));
+				buf[count++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+				buf[count++] = (byte) (0x80 | (c & 0x3f));
+			}
+		}
+		ensureCapacity(1);
+		buf[count++] = '"';
+	}
+
+	@Override
+	public void write(int b) {
+		ensureCapacity(1);
+		buf[count++] = (byte) b;
+	}
+
+	@Override
+	public void write(byte[] bytes, int offset, int length) {
+		ensureCapacity(length);
+		System.arraycopy(bytes, offset, buf, count, length);
+		count += length;
+	}
+
+	@Override
+	public void write(byte[] bytes) {
+		write(bytes, 0, bytes.length);
+	}
+
+	/**
+	 * @return the backing array, valid up to {@link #size()}
+	 */
+	byte[] bytes() {
+		return buf;
+	}
+
+	int size() {
+		return count;
+	}
+
+	/**
+	 * @return the length of the buffer
+	 */
+	int capacity() {
+		return buf.length;
+	}
+
+	/**
+	 * Empties the buffer, keeping its capacity
+	 */
+	void reset() {
+		count = 0;
+		depth = 0;
+		deferredKey = null;
+		deferredName = null;
+	}
+
+	/**
+	 * Drops everything before the offset
+	 */
+	void moveToStart(int offset) {
+		System.arraycopy(buf, offset, buf, 0, count - offset);
+		count -= offset;
+	}
+
+	/**
+	 * Drops everything from the offset on, e.g. a document that was written completely but is not wanted
+	 */
+	void truncate(int offset) {
+		count = offset;
+	}
+
+	void writeTo(OutputStream out) throws IOException {
+		out.write(buf, 0, count);
+	}
+
+	/**
+	 * Writes the separator, and the deferred name if there is one
+	 */
+	private void beforeValue() {
+		if (depth > 0) {
+			if (empty[depth]) {
+				empty[depth] = false;
+			} else {
+				write(',');
+			}
+		}
+		if (deferredKey != null) {
+			write(deferredKey.getUtf8());
+			deferredKey = null;
+		} else if (deferredName != null) {
+			string(deferredName);
+			write(':');
+			deferredName = null;
+		}
+	}
+
+	private void open(char bracket) {
+		write(bracket);
+		if (++depth == empty.length) {
+			empty = Arrays.copyOf(empty, depth * 2);
+		}
+		empty[depth] = true;
+	}
+
+	private void close(char bracket) {
+		--depth;
+		write(bracket);
+	}
+
+	/**
+	 * Writes characters that are known to be ASCII, e.g. a number
+	 */
+	private void writeAscii(String chars) {
+		ensureCapacity(chars.length());
+		for (int i = 0; i < chars.length(); ++i) {
+			buf[count++] = (byte) chars.charAt(i);
+		}
+	}
+
+	private void ensureCapacity(int extra) {
+		if (count + extra > buf.length) {
+			buf = Arrays.copyOf(buf, Math.max(buf.length * 2, count + extra));
+		}
+	}
+}
@@ -0,0 +1,394 @@
+/*
+ * ValueParser.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+/**
+ * Parses field values straight from the characters of the string, skipping surrounding whitespace the way
+ * {@link String#trim()} does, without a trimmed copy or a boxed result. Anything outside the plain decimal fast path
+ * falls back to the JDK parser on the trimmed value, so results and error messages stay the same as
+ * {@link Long#parseLong(String)} and {@link Double#parseDouble(String)}. Narrower types are range checked in the same
+ * pass, and fail like {@link Byte#parseByte(String)}.
+ */
+final class ValueParser {
+
+	/** Powers of ten that are exact doubles */
+	private static final double[] POWERS_OF_TEN = {
+			1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+	/** Mantissas up to 15 decimal digits are exact doubles */
+	private static final int MAX_EXACT_DIGITS = 15;
+	private static final String MAX_LONG_DIGITS = Long.toString(Long.MAX_VALUE);
+	private static final String MIN_LONG_DIGITS = Long.toString(Long.MIN_VALUE).substring(1);
+
+	private ValueParser() {
+	}
+
+	/**
+	 * @return true if the value is empty or only whitespace
+	 */
+	static boolean isBlank(CharSequence value) {
+		return start(value) == value.length();
+	}
+
+	/**
+	 * @return true if the trimmed value is an optionally signed decimal integer, which may still overflow a long
+	 */
+	static boolean isInteger(CharSequence value) {
+		int start = start(value);
+		int end = end(value, start);
+		if (start < end && (value.charAt(start) == '-' || value.charAt(start) == '+')) {
+			++start;
+		}
+		if (start == end) {
+			return false;
+		}
+		for (int i = start; i < end; ++i) {
+			char c = value.charAt(i);
+			if (c < '0' || c > '9') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return true if {@link #parseLong(CharSequence)} would parse the value, without throwing if it wouldn't
+	 */
+	static boolean isLong(CharSequence value) {
+		return isLong(value, Long.MIN_VALUE, Long.MAX_VALUE);
+	}
+
+	/**
+	 * @return true if {@link #parseLong(CharSequence, long, long)} would parse the value, without throwing if it
+	 *         wouldn't
+	 */
+	static boolean isLong(CharSequence value, long min, long max) {
+		int start = start(value);
+		int end = end(value, start);
+		boolean negative = start < end && value.charAt(start) == '-';
+		if (negative || start < end && value.charAt(start) == '+') {
+			++start;
+		}
+		if (start == end) {
+			return false;
+		}
+		// like Long.parseLong, any Unicode digits
+		for (int i = start; i < end; ++i) {
+			if (Character.digit(value.charAt(i), 10) < 0) {
+				return false;
+			}
+		}
+		while (start < end - 1 && Character.digit(value.charAt(start), 10) == 0) {
+			++start;
+		}
+		if (!fitsLong(value, start, end, negative)) {
+			return false;
+		}
+		if (min == Long.MIN_VALUE && max == Long.MAX_VALUE) {
+			return true;
+		}
+		// accumulate negatively, since Long.MIN_VALUE has no positive counterpart
+		long result = 0;
+		for (int i = start; i < end; ++i) {
+			result = result * 10 - Character.digit(value.charAt(i), 10);
+		}
+		return negative ? result >= min : -result <= max;
+	}
+
+	/**
+	 * @param start the first digit that isn't a leading zero
+	 * @return true if the digits between start and end are within the range of a long
+	 */
+	private static boolean fitsLong(CharSequence value, int start, int end, boolean negative) {
+		String limit = negative ? MIN_LONG_DIGITS : MAX_LONG_DIGITS;
+		if (end - start != limit.length()) {
+			return end - start < limit.length();
+		}
+		for (int i = 0; i < limit.length(); ++i) {
+			int digit = Character.digit(value.charAt(start + i), 10);
+			int limitDigit = limit.charAt(i) - '0';
+			if (digit != limitDigit) {
+				return digit < limitDigit;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks the syntax that {@link Double#parseDouble(String)} accepts, including hexadecimal values and type
+	 * suffixes, but not NaN and Infinity, which JSON can't represent. A valid value may still be too large for a
+	 * double.
+	 *
+	 * @return true if {@link #parseDouble(CharSequence)} would parse the value, without throwing if it wouldn't
+	 */
+	static boolean isDouble(CharSequence value) {
+		int start = start(value);
+		int end = end(value, start);
+		int i = start;
+		if (i < end && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+			++i;
+		}
+		boolean hex = end - i > 2 && value.charAt(i) == '0' && (value.charAt(i + 1) | 0x20) == 'x';
+		if (hex) {
+			i += 2;
+		}
+		int digits = 0;
+		boolean point = false;
+		for (; i < end; ++i) {
+			char c = value.charAt(i);
+			if (c == '.' && !point) {
+				point = true;
+			} else if (hex ? Character.digit(c, 16) >= 0 && c < 0x80 : c >= '0' && c <= '9') {
+				++digits;
+			} else {
+				break;
+			}
+		}
+		if (digits == 0) {
+			return false;
+		}
+		// hexadecimal values need a binary exponent
+		if (i < end && (value.charAt(i) | 0x20) == (hex ? 'p' : 'e')) {
+			++i;
+			if (i < end && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+				++i;
+			}
+			int exponentStart = i;
+			while (i < end && value.charAt(i) >= '0' && value.charAt(i) <= '9') {
+				++i;
+			}
+			if (i == exponentStart) {
+				return false;
+			}
+		} else if (hex) {
+			return false;
+		}
+		if (i < end && "fFdD".indexOf(value.charAt(i)) >= 0) {
+			++i;
+		}
+		return i == end;
+	}
+
+	/**
+	 * @return true if the trimmed value is "true", ignoring case, like {@link Boolean#parseBoolean(String)}
+	 */
+	static boolean parseBoolean(CharSequence value) {
+		int start = start(value);
+		int end = end(value, start);
+		if (end - start != 4) {
+			return false;
+		}
+		return (value.charAt(start) | 0x20) == 't' && (value.charAt(start + 1) | 0x20) == 'r'
+				&& (value.charAt(start + 2) | 0x20) == 'u' && (value.charAt(start + 3) | 0x20) == 'e';
+	}
+
+	/**
+	 * @throws NumberFormatException like {@link Long#parseLong(String)} on the trimmed value
+	 */
+	static long parseLong(CharSequence value) {
+		return parseLong(value, Long.MIN_VALUE, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Parses an integer of a narrower type, e.g. a byte with the range -128 to 127. The range is checked against the
+	 * accumulated value while parsing, so a value in range costs nothing extra.
+	 *
+	 * @throws NumberFormatException like {@link Long#parseLong(String)} on the trimmed value, or like
+	 *                               {@link Byte#parseByte(String)} if it is out of range
+	 */
+	static long parseLong(CharSequence value, long min, long max) {
+		int start = start(value);
+		int end = end(value, start);
+		int i = start;
+		boolean negative = false;
+		if (i < end) {
+			char first = value.charAt(i);
+			if (first == '-' || first == '+') {
+				negative = first == '-';
+				++i;
+			}
+		}
+		if (i == end) {
+			return slowParseLong(value, start, end, min, max);
+		}
+		// accumulate negatively, since Long.MIN_VALUE has no positive counterpart
+		long limit = negative ? min : -max;
+		long multmin = limit / 10;
+		long result = 0;
+		for (; i < end; ++i) {
+			int digit = value.charAt(i) - '0';
+			if (digit < 0 || digit > 9 || result < multmin) {
+				return slowParseLong(value, start, end, min, max);
+			}
+			result *= 10;
+			if (result < limit + digit) {
+				return slowParseLong(value, start, end, min, max);
+			}
+			result -= digit;
+		}
+		return negative ? result : -result;
+	}
+
+	/**
+	 * Plain decimals with up to 15 significant digits and a small exponent are exact: the mantissa and the power of
+	 * ten are both exact doubles, so a single multiplication or division is correctly rounded.
+	 *
+	 * @throws NumberFormatException like {@link Double#parseDouble(String)} on the trimmed value
+	 */
+	static double parseDouble(CharSequence value) {
+		int start = start(value);
+		int end = end(value, start);
+		int i = start;
+		boolean negative = false;
+		if (i < end) {
+			char first = value.charAt(i);
+			if (first == '-' || first == '+') {
+				negative = first == '-';
+				++i;
+			}
+		}
+		long mantissa = 0;
+		int digits = 0;
+		int significant = 0;
+		int scale = 0;
+		boolean fraction = false;
+		for (; i < end; ++i) {
+			char c = value.charAt(i);
+			if (c >= '0' && c <= '9') {
+				++digits;
+				if (significant > 0 || c != '0') {
+					if (++significant > MAX_EXACT_DIGITS) {
+						return slowParseDouble(value, start, end);
+					}
+					mantissa = mantissa * 10 + (c - '0');
+				}
+				if (fraction) {
+					--scale;
+				}
+			} else if (c == '.' && !fraction) {
+				fraction = true;
+			} else {
+				break;
+			}
+		}
+		if (digits == 0) {
+			return slowParseDouble(value, start, end);
+		}
+		if (i < end) {
+			char c = value.charAt(i);
+			if (c != 'e' && c != 'E') {
+				return slowParseDouble(value, start, end);
+			}
+			++i;
+			boolean negativeExponent = false;
+			if (i < end && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+				negativeExponent = value.charAt(i) == '-';
+				++i;
+			}
+			if (i == end || end - i > 3) {
+				return slowParseDouble(value, start, end);
+			}
+			int exponent = 0;
+			for (; i < end; ++i) {
+				int digit = value.charAt(i) - '0';
+				if (digit < 0 || digit > 9) {
+					return slowParseDouble(value, start, end);
+				}
+				exponent = exponent * 10 + digit;
+			}
+			scale += negativeExponent ? -exponent : exponent;
+		}
+		double result;
+		if (mantissa == 0) {
+			result = 0.0;
+		} else if (scale >= 0 && scale < POWERS_OF_TEN.length) {
+			result = mantissa * POWERS_OF_TEN[scale];
+		} else if (scale < 0 && -scale < POWERS_OF_TEN.length) {
+			result = mantissa / POWERS_OF_TEN[-scale];
+		} else {
+			return slowParseDouble(value, start, end);
+		}
+		return negative ? -result : result;
+	}
+
+	/**
+	 * Parses the value the way the JDK does, like a float, without its range check. A value too large for a float
+	 * becomes infinity there, and Elasticsearch rejects it.
+	 *
+	 * @throws NumberFormatException like {@link Double#parseDouble(String)} on the trimmed value, or like
+	 *                               {@link Byte#parseByte(String)} if it is out of the range of a float
+	 */
+	static double parseFloat(CharSequence value) {
+		double parsed = parseDouble(value);
+		if (Float.isInfinite((float) parsed) && !Double.isInfinite(parsed)) {
+			int start = start(value);
+			throw outOfRange(value.subSequence(start, end(value, start)));
+		}
+		return parsed;
+	}
+
+	private static long slowParseLong(CharSequence value, int start, int end, long min, long max) {
+		String trimmed = value.subSequence(start, end).toString();
+		long parsed = Long.parseLong(trimmed);
+		if (parsed < min || parsed > max) {
+			throw outOfRange(trimmed);
+		}
+		return parsed;
+	}
+
+	private static NumberFormatException outOfRange(CharSequence value) {
+		return new NumberFormatException(outOfRangeMessage(value));
+	}
+
+	/**
+	 * @return the message {@link Byte#parseByte(String)} and {@link Short#parseShort(String)} fail with
+	 */
+	static String outOfRangeMessage(CharSequence value) {
+		return "Value out of range. Value:\"" + value + "\" Radix:10";
+	}
+
+	private static double slowParseDouble(CharSequence value, int start, int end) {
+		return Double.parseDouble(value.subSequence(start, end).toString());
+	}
+
+	/**
+	 * @return the index of the first character that trim() would keep
+	 */
+	private static int start(CharSequence value) {
+		int start = 0;
+		int length = value.length();
+		while (start < length && value.charAt(start) <= ' ') {
+			++start;
+		}
+		return start;
+	}
+
+	/**
+	 * @return the index after the last character that trim() would keep
+	 */
+	private static int end(CharSequence value, int start) {
+		int end = value.length();
+		while (end > start && value.charAt(end - 1) <= ' ') {
+			--end;
+		}
+		return end;
+	}
+}
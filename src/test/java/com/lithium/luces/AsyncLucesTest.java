@@ -0,0 +1,151 @@
+/*
+ * AsyncLucesTest.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.Field.Index;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.util.Version;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.gson.JsonParser;
+
+public class AsyncLucesTest {
+
+	private final ExecutorService pool = Executors.newFixedThreadPool(4);
+	private final ConcurrentLuces converter = new ConcurrentLuces(Version.LUCENE_36,
+			LucesMapping.UNMAPPED.withErrorIfMappingIsNull(false));
+
+	@After
+	public void shutdown() {
+		pool.shutdownNow();
+	}
+
+	@Test
+	public void testWriteJSONKeepsOrder() throws Exception {
+		List<Document> docs = createDocuments(10);
+		List<ByteBuffer> json = new AsyncLuces(converter, pool).batchSize(3).writeJSON(docs).get();
+		Assert.assertEquals(10, json.size());
+		for (int i = 0; i < docs.size(); ++i) {
+			Assert.assertEquals(converter.documentToJSONStringified(docs.get(i), false),
+					StandardCharsets.UTF_8.decode(json.get(i)).toString());
+		}
+	}
+
+	@Test
+	public void testBulkIsOrderedAndBounded() throws Exception {
+		final AtomicInteger read = new AtomicInteger();
+		final Iterator<Document> docs = createDocuments(1000).iterator();
+		Iterator<Document> counting = new Iterator<Document>() {
+			@Override
+			public boolean hasNext() {
+				return docs.hasNext();
+			}
+
+			@Override
+			public Document next() {
+				read.incrementAndGet();
+				return docs.next();
+			}
+		};
+		final List<Integer> ids = new ArrayList<>();
+		BulkSink slow = new BulkSink() {
+			@Override
+			public void flush(byte[] body, int length, int documentCount) throws IOException {
+				// at most 3 batches of 20 documents are read but not yet written
+				Assert.assertTrue(read.get() - ids.size() <= 60);
+				String[] lines = new String(body, 0, length, StandardCharsets.UTF_8).split("\n");
+				for (int i = 0; i < lines.length; i += 2) {
+					ids.add(new JsonParser().parse(lines[i]).getAsJsonObject().getAsJsonObject("index").get("_id")
+							.getAsInt());
+				}
+				try {
+					Thread.sleep(1);
+				} catch (InterruptedException ex) {
+					throw new IOException(ex);
+				}
+			}
+		};
+		int written = new AsyncLuces(converter, pool).batchSize(20).maxPendingBatches(3)
+				.documentsToBulk(counting, BulkOptions.forIndex("users").withIdField("id").withMaxDocuments(10), slow)
+				.get();
+		Assert.assertEquals(1000, written);
+		for (int i = 0; i < 1000; ++i) {
+			Assert.assertEquals(i, ids.get(i).intValue());
+		}
+	}
+
+	@Test
+	public void testDirectExecutor() throws Exception {
+		final AtomicInteger documents = new AtomicInteger();
+		BulkSink counting = new BulkSink() {
+			@Override
+			public void flush(byte[] body, int length, int documentCount) {
+				documents.addAndGet(documentCount);
+			}
+		};
+		AsyncLuces async = new AsyncLuces(converter, Runnable::run).batchSize(1).maxPendingBatches(1);
+		Assert.assertEquals(20000, async.documentsToBulk(createDocuments(20000).iterator(),
+				BulkOptions.forIndex("users"), counting).get().intValue());
+		Assert.assertEquals(20000, documents.get());
+	}
+
+	@Test
+	public void testSinkFailureFailsTheFuture() throws Exception {
+		BulkSink failing = new BulkSink() {
+			@Override
+			public void flush(byte[] body, int length, int documentCount) throws IOException {
+				throw new IOException("sink is down");
+			}
+		};
+		try {
+			new AsyncLuces(converter, pool).ordered(false).batchSize(10)
+					.documentsToBulk(createDocuments(100).iterator(), BulkOptions.forIndex("users"), failing).get();
+			Assert.fail("Expected an ExecutionException");
+		} catch (ExecutionException ex) {
+			Assert.assertEquals("sink is down", ex.getCause().getMessage());
+		}
+	}
+
+	private static List<Document> createDocuments(int count) {
+		List<Document> docs = new ArrayList<>(count);
+		for (int i = 0; i < count; ++i) {
+			Document doc = new Document();
+			doc.add(new Field("id", String.valueOf(i), Store.YES, Index.NOT_ANALYZED));
+			doc.add(new Field("name", "user" + i, Store.YES, Index.NOT_ANALYZED));
+			docs.add(doc);
+		}
+		return docs;
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * BulkWriterTest.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.Field.Index;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.util.Version;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BulkWriterTest {
+
+	private static final String ID = "id";
+
+	@Test
+	public void testBulkBody() throws IOException {
+		Luces luces = new Luces(Version.LUCENE_36).mapping(LucesTest.TYPE, LucesTest.createMapping());
+		List<Document> docs = createDocuments(2);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		int written = luces.documentsToBulk(docs,
+				BulkOptions.forIndex("users").withType(LucesTest.TYPE).withIdField(ID), new OutputStreamBulkSink(out));
+		Assert.assertEquals(2, written);
+		String expected = "{\"index\":{\"_index\":\"users\",\"_type\":\"testType\",\"_id\":\"0\"}}\n"
+				+ luces.documentToJSONStringified(docs.get(0), false) + "\n"
+				+ "{\"index\":{\"_index\":\"users\",\"_type\":\"testType\",\"_id\":\"1\"}}\n"
+				+ luces.documentToJSONStringified(docs.get(1), false) + "\n";
+		Assert.assertEquals(expected, new String(out.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testWithoutTypeAndId() throws IOException {
+		Luces luces = new Luces(Version.LUCENE_36).mapping(LucesTest.TYPE, LucesTest.createMapping());
+		Document doc = LucesTest.createMockFlatUserDocument();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		luces.documentsToBulk(Arrays.asList(doc), BulkOptions.forIndex("a\"b"), new OutputStreamBulkSink(out));
+		Assert.assertEquals("{\"index\":{\"_index\":\"a\\\"b\"}}\n" + luces.documentToJSONStringified(doc, false) + "\n",
+				new String(out.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testFlushOnDocumentLimit() throws IOException {
+		Luces luces = new Luces(Version.LUCENE_36).mapping(LucesTest.TYPE, LucesTest.createMapping());
+		ChunkCollector chunks = new ChunkCollector();
+		luces.documentsToBulk(createDocuments(7), BulkOptions.forIndex("users").withMaxDocuments(3), chunks);
+		Assert.assertEquals(Arrays.asList(3, 3, 1), chunks.counts);
+		for (String chunk : chunks.bodies) {
+			Assert.assertTrue(chunk.endsWith("}\n"));
+		}
+	}
+
+	@Test
+	public void testFlushOnByteLimit() throws IOException {
+		Luces luces = new Luces(Version.LUCENE_36).mapping(LucesTest.TYPE, LucesTest.createMapping());
+		List<Document> docs = createDocuments(5);
+		ByteArrayOutputStream single = new ByteArrayOutputStream();
+		luces.documentsToBulk(docs.subList(0, 1), BulkOptions.forIndex("users").withIdField(ID),
+				new OutputStreamBulkSink(single));
+		int docSize = single.size();
+
+		// room for two and a half documents
+		ChunkCollector chunks = new ChunkCollector();
+		luces.documentsToBulk(docs, BulkOptions.forIndex("users").withIdField(ID).withMaxBytes(docSize * 5 / 2), chunks);
+		Assert.assertEquals(Arrays.asList(2, 2, 1), chunks.counts);
+		StringBuilder all = new StringBuilder();
+		for (String chunk : chunks.bodies) {
+			Assert.assertTrue(chunk.getBytes(StandardCharsets.UTF_8).length <= docSize * 5 / 2);
+			Assert.assertTrue(chunk.startsWith("{\"index\""));
+			all.append(chunk);
+		}
+		ByteArrayOutputStream unlimited = new ByteArrayOutputStream();
+		luces.documentsToBulk(docs, BulkOptions.forIndex("users").withIdField(ID), new OutputStreamBulkSink(unlimited));
+		Assert.assertEquals(new String(unlimited.toByteArray(), StandardCharsets.UTF_8), all.toString());
+	}
+
+	@Test
+	public void testDocumentLargerThanByteLimit() throws IOException {
+		Luces luces = new Luces(Version.LUCENE_36).mapping(LucesTest.TYPE, LucesTest.createMapping());
+		ChunkCollector chunks = new ChunkCollector();
+		luces.documentsToBulk(createDocuments(2), BulkOptions.forIndex("users").withMaxBytes(10), chunks);
+		Assert.assertEquals(Arrays.asList(1, 1), chunks.counts);
+	}
+
+	@Test(expected = NoSuchElementException.class)
+	public void testMissingId() throws IOException {
+		Luces luces = new Luces(Version.LUCENE_36).mapping(LucesTest.TYPE, LucesTest.createMapping());
+		luces.documentsToBulk(Arrays.asList(LucesTest.createMockFlatUserDocument()),
+				BulkOptions.forIndex("users").withIdField(ID), new ChunkCollector());
+	}
+
+	static List<Document> createDocuments(int count) {
+		List<Document> docs = new ArrayList<>();
+		for (int i = 0; i < count; ++i) {
+			Document doc = LucesTest.createMockFlatUserDocument();
+			doc.add(new Field(ID, String.valueOf(i), Store.YES, Index.NOT_ANALYZED));
+			docs.add(doc);
+		}
+		return docs;
+	}
+
+	private static class ChunkCollector implements BulkSink {
+		final List<String> bodies = new ArrayList<>();
+		final List<Integer> counts = new ArrayList<>();
+
+		@Override
+		public void flush(byte[] body, int length, int documentCount) {
+			bodies.add(new String(body, 0, length, StandardCharsets.UTF_8));
+			counts.add(documentCount);
+		}
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * CborOutputTest.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.Field.Index;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.util.Version;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.gson.JsonParser;
+
+/**
+ * Encodings from the examples of RFC 7049, appendix A
+ */
+public class CborOutputTest {
+
+	@Test
+	public void testNumbers() {
+		assertEncoding("00", 0L);
+		assertEncoding("17", 23L);
+		assertEncoding("1818", 24L);
+		assertEncoding("1903e8", 1000L);
+		assertEncoding("1a000f4240", 1000000L);
+		assertEncoding("1b000000e8d4a51000", 1000000000000L);
+		assertEncoding("20", -1L);
+		assertEncoding("3863", -100L);
+		assertEncoding("3b7fffffffffffffff", Long.MIN_VALUE);
+		assertEncoding("fb3ff199999999999a", 1.1);
+		assertEncoding("fa47c35000", 100000.0f);
+		assertEncoding("f4", false);
+		assertEncoding("f5", true);
+	}
+
+	@Test
+	public void testStrings() {
+		assertEncoding("60", "");
+		assertEncoding("6449455446", "IETF");
+		assertEncoding("62c3bc", "ü");
+		assertEncoding("63e6b0b4", "水");
+		assertEncoding("64f0908591", "𐅑");
+		assertEncoding("613f", "\ud800");
+	}
+
+	@Test
+	public void testStructure() {
+		FieldDescriptor field = new FieldDescriptor("a", ParseType.LONG, FieldDescriptor.EmptyValue.PARSE);
+		CborOutput out = new CborOutput(1);
+		out.beginObject();
+		out.name(field.getKey());
+		out.value(1L);
+		out.name("dropped");
+		out.nullValue();
+		out.name("b");
+		out.beginArray();
+		out.value(2L);
+		out.nullValue();
+		out.binaryValue(new byte[] {9, 1, 2, 3, 9}, 1, 3);
+		out.endArray();
+		out.endObject();
+		Assert.assertEquals("bf61610161629f02f643010203ffff", hex(out));
+	}
+
+	@Test
+	public void testDocument() throws IOException {
+		Luces luces = new Luces(Version.LUCENE_36).mapping(LucesTest.TYPE, new JsonParser().parse(
+				"{\"" + LucesTest.TYPE + "\":{\"properties\":{\"views\":{\"type\":\"integer\"},"
+						+ "\"rating\":{\"type\":\"float\"}}}}").getAsJsonObject());
+		Document doc = new Document();
+		doc.add(new Field("views", "10", Store.NO, Index.ANALYZED));
+		doc.add(new Field("rating", "1.5", Store.NO, Index.ANALYZED));
+		doc.add(new Field("views", "-2", Store.NO, Index.ANALYZED));
+		doc.add(new Field("name", "x", Store.NO, Index.ANALYZED));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		luces.writeCBOR(doc, out);
+		Assert.assertEquals("bf" + "6576696577739f0a21ff" + "66726174696e67fb3ff8000000000000" + "646e616d656178" + "ff",
+				hex(out.toByteArray(), out.size()));
+	}
+
+	private static void assertEncoding(String expected, Object value) {
+		CborOutput out = new CborOutput(1);
+		if (value instanceof Long) {
+			out.value((long) (Long) value);
+		} else if (value instanceof Double) {
+			out.value((double) (Double) value);
+		} else if (value instanceof Float) {
+			out.value((float) (Float) value);
+		} else if (value instanceof Boolean) {
+			out.value((boolean) (Boolean) value);
+		} else {
+			out.value((String) value);
+		}
+		Assert.assertEquals(expected, hex(out));
+	}
+
+	private static String hex(CborOutput out) {
+		return hex(out.bytes(), out.size());
+	}
+
+	private static String hex(byte[] bytes, int length) {
+		StringBuilder hex = new StringBuilder();
+		for (byte b : Arrays.copyOf(bytes, length)) {
+			hex.append(String.format("%02x", b & 0xff));
+		}
+		return hex.toString();
+	}
+}
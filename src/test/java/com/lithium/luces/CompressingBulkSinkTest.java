@@ -0,0 +1,135 @@
+/*
+ * CompressingBulkSinkTest.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.util.Version;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompressingBulkSinkTest {
+
+	@Test
+	public void testBodiesDecompress() throws IOException {
+		Luces luces = new Luces(Version.LUCENE_36).mapping(LucesTest.TYPE, LucesTest.createMapping());
+		List<Document> docs = BulkWriterTest.createDocuments(500);
+		BulkOptions options = BulkOptions.forIndex("users").withIdField("id").withMaxDocuments(200);
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		luces.documentsToBulk(docs, options, new OutputStreamBulkSink(expected));
+
+		for (CompressingBulkSink.Encoding encoding : CompressingBulkSink.Encoding.values()) {
+			final List<byte[]> bodies = new ArrayList<>();
+			BulkSink collector = new BulkSink() {
+				@Override
+				public void flush(byte[] body, int length, int documentCount) {
+					byte[] copy = new byte[length];
+					System.arraycopy(body, 0, copy, 0, length);
+					bodies.add(copy);
+				}
+			};
+			try (CompressingBulkSink sink = new CompressingBulkSink(collector, encoding)) {
+				luces.documentsToBulk(docs, options, sink);
+			}
+			Assert.assertEquals(3, bodies.size());
+			ByteArrayOutputStream actual = new ByteArrayOutputStream();
+			int compressed = 0;
+			for (byte[] body : bodies) {
+				compressed += body.length;
+				InputStream in = encoding == CompressingBulkSink.Encoding.GZIP
+						? new GZIPInputStream(new ByteArrayInputStream(body))
+						: new InflaterInputStream(new ByteArrayInputStream(body));
+				byte[] chunk = new byte[4096];
+				for (int read; (read = in.read(chunk)) > 0; ) {
+					actual.write(chunk, 0, read);
+				}
+			}
+			Assert.assertEquals(new String(expected.toByteArray(), StandardCharsets.UTF_8),
+					new String(actual.toByteArray(), StandardCharsets.UTF_8));
+			Assert.assertTrue(compressed < expected.size() / 4);
+		}
+	}
+
+	@Test
+	public void testConcurrentFlushesReachSinkTogether() throws Exception {
+		final CountDownLatch bothInside = new CountDownLatch(2);
+		BulkSink waiting = new BulkSink() {
+			@Override
+			public void flush(byte[] body, int length, int documentCount) throws IOException {
+				bothInside.countDown();
+				try {
+					if (!bothInside.await(10, TimeUnit.SECONDS)) {
+						throw new IOException("Flushes were serialized");
+					}
+				} catch (InterruptedException e) {
+					throw new IOException(e);
+				}
+			}
+		};
+		final byte[] body = "{\"index\":{}}\n{}\n".getBytes(StandardCharsets.UTF_8);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try (final CompressingBulkSink sink = new CompressingBulkSink(waiting, CompressingBulkSink.Encoding.GZIP)) {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < 2; ++i) {
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws IOException {
+						sink.flush(body, body.length, 1);
+						return null;
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testFlushAfterClose() throws IOException {
+		CompressingBulkSink sink = new CompressingBulkSink(new OutputStreamBulkSink(new ByteArrayOutputStream()),
+				CompressingBulkSink.Encoding.DEFLATE);
+		sink.close();
+		sink.flush(new byte[1], 1, 1);
+	}
+
+	@Test
+	public void testContentEncoding() {
+		Assert.assertEquals("gzip", CompressingBulkSink.Encoding.GZIP.getContentEncoding());
+		Assert.assertEquals("deflate", CompressingBulkSink.Encoding.DEFLATE.getContentEncoding());
+	}
+}
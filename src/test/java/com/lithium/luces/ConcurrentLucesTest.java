@@ -0,0 +1,128 @@
+/*
+ * ConcurrentLucesTest.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.util.Version;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConcurrentLucesTest {
+
+	@Test
+	public void testMatchesLuces() {
+		Document doc = LucesTest.createMockFlatUserDocument();
+		Luces luces = new Luces(Version.LUCENE_36).mapping(LucesTest.TYPE, LucesTest.createMapping());
+		ConcurrentLuces shared = new ConcurrentLuces(Version.LUCENE_36, luces.getMapping());
+		Assert.assertEquals(luces.documentToJSONStringified(doc, true), shared.documentToJSONStringified(doc, true));
+		Assert.assertEquals(luces.documentToJSON(doc), shared.documentToJSON(doc));
+		Assert.assertEquals(655351L, shared.getFieldValue("views", "655351"));
+	}
+
+	@Test
+	public void testMappingIsImmutable() {
+		LucesMapping mapping = LucesMapping.compile(LucesTest.TYPE, LucesTest.createMapping());
+		LucesMapping withDefaults = mapping.withDefaultsForEmpty(true);
+		Assert.assertFalse(mapping.isUseDefaultsForEmpty());
+		Assert.assertTrue(withDefaults.isUseDefaultsForEmpty());
+		Assert.assertEquals(LucesTest.TYPE, withDefaults.getTypeName());
+		Assert.assertTrue(withDefaults.withNullForEmpty(true).isUseNullForEmpty());
+		Assert.assertFalse(withDefaults.withNullForEmpty(true).isUseDefaultsForEmpty());
+		Assert.assertFalse(mapping.withMapping(null, null).isMapped());
+	}
+
+	@Test
+	public void testCopiesShareCompiledFields() {
+		LucesMapping mapping = LucesMapping.compile(LucesTest.TYPE, LucesTest.createMapping());
+		FieldDescriptor views = mapping.getField("views");
+		Assert.assertSame(views, mapping.withNestedObjects(true).withErrorIfMappingIsNull(false)
+				.getField("views"));
+		Assert.assertSame(mapping.getPathNodes(), mapping.withNestedObjects(true).getPathNodes());
+
+		LucesMapping withNull = mapping.withNullForEmpty(true);
+		FieldDescriptor nullViews = withNull.getField("views");
+		Assert.assertEquals(FieldDescriptor.EmptyValue.NULL, nullViews.getEmptyValue());
+		Assert.assertSame(views.getKey(), nullViews.getKey());
+		Assert.assertSame(views.getParent(), nullViews.getParent());
+		// toggled back and forth, each option's fields are only copied once
+		Assert.assertSame(views, withNull.withNullForEmpty(false).getField("views"));
+		Assert.assertSame(nullViews, mapping.withDefaultsForEmpty(true).withNullForEmpty(true)
+				.getField("views"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSwapToNull() {
+		new ConcurrentLuces(Version.LUCENE_36, LucesMapping.UNMAPPED).swap(null);
+	}
+
+	/**
+	 * Swaps between a typed and an untyped mapping while other threads convert. Every document must come out fully
+	 * converted by one of the two mappings.
+	 */
+	@Test
+	public void testSwapWhileConverting() throws Exception {
+		final Document doc = LucesTest.createMockFlatUserDocument();
+		final LucesMapping typed = LucesMapping.compile(LucesTest.TYPE, LucesTest.createMapping());
+		final LucesMapping untyped = LucesMapping.UNMAPPED.withErrorIfMappingIsNull(false);
+		final ConcurrentLuces shared = new ConcurrentLuces(Version.LUCENE_36, typed);
+		final String typedJson = shared.documentToJSONStringified(doc, false);
+		shared.swap(untyped);
+		final String untypedJson = shared.documentToJSONStringified(doc, false);
+		Assert.assertNotEquals(typedJson, untypedJson);
+
+		final AtomicBoolean running = new AtomicBoolean(true);
+		int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List<Future<Integer>> results = new ArrayList<>();
+		for (int t = 0; t < threads; ++t) {
+			results.add(pool.submit(new Callable<Integer>() {
+				@Override
+				public Integer call() {
+					int converted = 0;
+					while (running.get()) {
+						String json = shared.documentToJSONStringified(doc, false);
+						if (!json.equals(typedJson) && !json.equals(untypedJson)) {
+							throw new AssertionError("Mixed conversion: " + json);
+						}
+						++converted;
+					}
+					return converted;
+				}
+			}));
+		}
+		for (int i = 0; i < 1000; ++i) {
+			shared.swap(i % 2 == 0 ? typed : untyped);
+			Thread.yield();
+		}
+		running.set(false);
+		for (Future<Integer> result : results) {
+			Assert.assertTrue(result.get() > 0);
+		}
+		pool.shutdown();
+	}
+}
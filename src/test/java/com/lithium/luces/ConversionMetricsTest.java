@@ -0,0 +1,107 @@
+/*
+ * ConversionMetricsTest.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.Field.Index;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.util.Version;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConversionMetricsTest {
+
+	@Test
+	public void testDocumentAndValueCounts() throws IOException {
+		ConversionMetrics metrics = new ConversionMetrics();
+		Luces luces = new Luces(Version.LUCENE_36).mapping(LucesTest.TYPE, LucesTest.createMapping())
+				.conversionListener(metrics);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		luces.writeJSON(LucesTest.createMockFlatUserDocument(), out, false);
+		luces.documentToJSON(LucesTest.createMockFlatUserDocument());
+
+		Assert.assertEquals(2, metrics.getDocuments());
+		Assert.assertEquals(12, metrics.getValues(ParseType.STRING));
+		Assert.assertEquals(2, metrics.getValues(ParseType.FLOAT));
+		Assert.assertEquals(2, metrics.getValues(ParseType.INTEGER));
+		Assert.assertEquals(2, metrics.getValues(ParseType.BYTE));
+		Assert.assertEquals(2, metrics.getValues(ParseType.BOOLEAN));
+		Assert.assertEquals(0, metrics.getValues(ParseType.LONG));
+		Assert.assertEquals(out.size(), metrics.getBytes());
+		Assert.assertTrue(metrics.getFailures().isEmpty());
+		Assert.assertTrue(metrics.getLatencyPercentile(100, TimeUnit.NANOSECONDS) > 0);
+		Assert.assertTrue(metrics.getLatencyPercentile(50, TimeUnit.NANOSECONDS)
+				<= metrics.getLatencyPercentile(100, TimeUnit.NANOSECONDS));
+	}
+
+	@Test
+	public void testParseFailuresAreCountedPerField() {
+		ConversionMetrics metrics = new ConversionMetrics();
+		Luces luces = new Luces(Version.LUCENE_36).mapping(LucesTest.TYPE, LucesTest.createMapping())
+				.conversionListener(metrics);
+		Document doc = LucesTest.createMockFlatUserDocument();
+		doc.removeField("views");
+		doc.add(new Field("views", "12ab", Store.NO, Index.ANALYZED));
+		try {
+			luces.documentToJSON(doc);
+			Assert.fail("Expected a NumberFormatException");
+		} catch (NumberFormatException expected) {
+			// counted before it is thrown
+		}
+		try {
+			luces.getFieldValue("views", "");
+			Assert.fail("Expected a NumberFormatException");
+		} catch (NumberFormatException expected) {
+			// counted before it is thrown
+		}
+		Assert.assertEquals(Collections.singletonMap("views", 2L), metrics.getFailures());
+		Assert.assertEquals(0, metrics.getDocuments());
+	}
+
+	@Test
+	public void testBulkBytes() throws IOException {
+		ConversionMetrics metrics = new ConversionMetrics();
+		Luces luces = new Luces(Version.LUCENE_36).mapping(LucesTest.TYPE, LucesTest.createMapping())
+				.conversionListener(metrics);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		luces.documentsToBulk(BulkWriterTest.createDocuments(5), BulkOptions.forIndex("users").withMaxDocuments(2),
+				new OutputStreamBulkSink(out));
+		Assert.assertEquals(5, metrics.getDocuments());
+		Assert.assertEquals(out.size(), metrics.getBytes());
+	}
+
+	@Test
+	public void testRemovedListenerIsNotCalled() {
+		ConversionMetrics metrics = new ConversionMetrics();
+		Luces luces = new Luces(Version.LUCENE_36).mapping(LucesTest.TYPE, LucesTest.createMapping())
+				.conversionListener(metrics);
+		luces.documentToJSON(LucesTest.createMockFlatUserDocument());
+		luces.conversionListener(null);
+		luces.documentToJSON(LucesTest.createMockFlatUserDocument());
+		Assert.assertEquals(1, metrics.getDocuments());
+		Assert.assertEquals(0, metrics.getMeanLatency(TimeUnit.DAYS));
+	}
+}
@@ -0,0 +1,151 @@
+/*
+ * DateFieldFormatTest.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.Field.Index;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.NumericField;
+import org.apache.lucene.util.NumericUtils;
+import org.apache.lucene.util.Version;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.gson.JsonObject;
+
+public class DateFieldFormatTest {
+
+	private static final long SIGNUP = 1419341096000L;
+
+	@Test
+	public void testDefaultFormat() {
+		Luces luces = luces(null);
+		Assert.assertEquals("2014-12-23T13:24:56Z", luces.getFieldValue("signup", " 2014-12-23T13:24:56Z "));
+		Assert.assertEquals("2014-12-23", luces.getFieldValue("signup", "2014-12-23"));
+		Assert.assertEquals(SIGNUP, luces.getFieldValue("signup", String.valueOf(SIGNUP)));
+		// an epoch of a DateTools length is not taken for yyyyMMdd..., but a NumericUtils encoding is decoded last
+		Assert.assertEquals(978307200000L, luces.getFieldValue("signup", "978307200000"));
+		Assert.assertEquals(20141223132456L, luces.getFieldValue("signup", "20141223132456"));
+		Assert.assertEquals("{\"signup\":978307200000}",
+				luces.documentToJSONStringified(createDocument(" 978307200000 "), false));
+		Assert.assertEquals("2014-12-23T13:24:56.000Z",
+				luces.getFieldValue("signup", NumericUtils.longToPrefixCoded(SIGNUP)));
+	}
+
+	@Test
+	public void testPatternFormat() {
+		Luces luces = luces("yyyy/MM/dd HH:mm:ss||yyyy/MM/dd");
+		Assert.assertEquals("2014/12/23", luces.getFieldValue("signup", "2014/12/23"));
+		Assert.assertEquals("2014/12/23 13:24:56", luces.getFieldValue("signup", "20141223132456"));
+		Assert.assertEquals("2014/12/23 13:24:56", luces.getFieldValue("signup", String.valueOf(SIGNUP)));
+		Assert.assertEquals("{\"signup\":\"2014/12/23 13:24:56\"}",
+				luces.documentToJSONStringified(createDocument("20141223132456"), false));
+	}
+
+	@Test
+	public void testEpochFormats() {
+		// 10 and 13 digit epochs, which are also DateTools lengths, stay epochs
+		Assert.assertEquals(1420070400L, luces("epoch_second").getFieldValue("signup", "1420070400"));
+		Assert.assertEquals(1419341096L, luces("epoch_second").getFieldValue("signup", "1419341096"));
+		Assert.assertEquals(SIGNUP, luces("epoch_millis").getFieldValue("signup", String.valueOf(SIGNUP)));
+		Assert.assertEquals(20141323L, luces("epoch_millis").getFieldValue("signup", "20141323"));
+		Assert.assertEquals("{\"signup\":1420070400}", luces("epoch_second||yyyy-MM-dd")
+				.documentToJSONStringified(createDocument("1420070400"), false));
+		Assert.assertEquals("{\"signup\":978307200000}", luces("epoch_millis||yyyyMMdd")
+				.documentToJSONStringified(createDocument("978307200000"), false));
+		Assert.assertEquals("{\"signup\":\"2014-12-23\"}", luces("epoch_millis||yyyy-MM-dd")
+				.documentToJSONStringified(createDocument("2014-12-23"), false));
+	}
+
+	@Test
+	public void testNumericField() {
+		Luces luces = luces("yyyy-MM-dd");
+		Document doc = new Document();
+		doc.add(new NumericField("signup", Store.YES, true).setLongValue(SIGNUP));
+		Assert.assertEquals("{\"signup\":\"2014-12-23\"}", luces.documentToJSONStringified(doc, false));
+		Assert.assertEquals("2014-12-23", luces.getFieldValue(doc.getFieldable("signup")));
+	}
+
+	@Test
+	public void testLeadingSpaceIsNotPrefixCoded() throws IOException {
+		// 11 characters starting with a space, like a NumericUtils prefix coded long
+		Luces luces = luces(null);
+		Assert.assertEquals(1420070400L, luces.getFieldValue("signup", " 1420070400"));
+		Assert.assertEquals("{\"signup\":1420070400}",
+				luces.documentToJSONStringified(createDocument(" 1420070400"), false));
+		Assert.assertEquals("{\"signup\":1420070400}", luces.documentToJSON(createDocument(" 1420070400")).toString());
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		luces.writeJSON(createDocument(" 1420070400"), out, false);
+		Assert.assertEquals("{\"signup\":1420070400}", new String(out.toByteArray(), StandardCharsets.UTF_8));
+
+		luces = luces("yyyy-MM-dd");
+		Assert.assertEquals("2015-01-01", luces.getFieldValue("signup", " 2015-01-01"));
+		Assert.assertEquals("{\"signup\":\"2015-01-01\"}",
+				luces.documentToJSONStringified(createDocument(" 2015-01-01"), false));
+		Assert.assertEquals("{\"signup\":\"2015-01-01\"}", luces.documentToJSON(createDocument(" 2015-01-01"))
+				.toString());
+		out.reset();
+		luces.writeJSON(createDocument(" 2015-01-01"), out, false);
+		Assert.assertEquals("{\"signup\":\"2015-01-01\"}", new String(out.toByteArray(), StandardCharsets.UTF_8));
+		Assert.assertEquals("2014-12-23", luces.getFieldValue("signup", NumericUtils.longToPrefixCoded(SIGNUP)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testImplausiblePrefixCodedDate() {
+		// decodes to a year far past 9999
+		luces("yyyy-MM-dd").getFieldValue("signup", " 2015/01/01");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnparseableDate() {
+		luces("yyyy-MM-dd").getFieldValue("signup", "23.12.2014");
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testInvalidFormat() {
+		luces("yyyy-MM-dd||bogus_QQ");
+	}
+
+	private static Luces luces(String format) {
+		JsonObject signup = new JsonObject();
+		signup.addProperty("type", "date");
+		if (format != null) {
+			signup.addProperty("format", format);
+		}
+		JsonObject properties = new JsonObject();
+		properties.add("signup", signup);
+		JsonObject type = new JsonObject();
+		type.add("properties", properties);
+		JsonObject mapping = new JsonObject();
+		mapping.add("user", type);
+		return new Luces(Version.LUCENE_36).mapping("user", mapping);
+	}
+
+	private static Document createDocument(String signup) {
+		Document doc = new Document();
+		doc.add(new Field("signup", signup, Store.YES, Index.NOT_ANALYZED));
+		return doc;
+	}
+}
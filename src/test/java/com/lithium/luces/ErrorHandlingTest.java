@@ -0,0 +1,160 @@
+/*
+ * ErrorHandlingTest.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.Field.Index;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.util.Version;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.gson.JsonNull;
+import com.google.gson.JsonParser;
+
+public class ErrorHandlingTest {
+
+	private static final LucesMapping MAPPING = LucesMapping.compile("user",
+			new JsonParser().parse("{\"user\":{\"properties\":{\"id\":{\"type\":\"string\"},"
+					+ "\"count\":{\"type\":\"integer\"}}}}").getAsJsonObject());
+
+	@Test
+	public void testFailIsTheDefault() {
+		ConcurrentLuces luces = new ConcurrentLuces(Version.LUCENE_36, MAPPING);
+		try {
+			luces.documentToJSONStringified(createDocument("1", "123abc"), false);
+			Assert.fail("Expected a NumberFormatException");
+		} catch (NumberFormatException ex) {
+			Assert.assertEquals("Error parsing count field: For input string: \"123abc\"", ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testOutOfRangeValues() {
+		ConcurrentLuces luces = new ConcurrentLuces(Version.LUCENE_36, MAPPING);
+		Assert.assertEquals(2147483647L, luces.getFieldValue("count", "2147483647"));
+		try {
+			luces.documentToJSONStringified(createDocument("1", "2147483648"), false);
+			Assert.fail("Expected a NumberFormatException");
+		} catch (NumberFormatException ex) {
+			Assert.assertEquals("Error parsing count field: Value out of range. Value:\"2147483648\" Radix:10",
+					ex.getMessage());
+		}
+
+		RecordingSink sink = new RecordingSink();
+		luces.errorHandling(ErrorHandling.of(ErrorPolicy.SKIP_FIELD).withSink(sink));
+		Assert.assertEquals("{\"id\":\"1\"}", luces.documentToJSONStringified(createDocument("1", " -2147483649 "), false));
+		Assert.assertEquals("Error parsing count field: Value out of range. Value:\"-2147483649\" Radix:10",
+				sink.errors.get(0).getMessage());
+	}
+
+	@Test
+	public void testPolicies() {
+		RecordingSink sink = new RecordingSink();
+		ConcurrentLuces luces = new ConcurrentLuces(Version.LUCENE_36, MAPPING);
+		Document single = createDocument("1", "123abc");
+		Document array = createDocument("2", "1", "123abc", "3");
+
+		luces.errorHandling(ErrorHandling.of(ErrorPolicy.SKIP_FIELD).withSink(sink).withIdField("id"));
+		Assert.assertEquals("{\"id\":\"1\"}", luces.documentToJSONStringified(single, false));
+		Assert.assertEquals("{\"id\":\"2\",\"count\":[1,3]}", luces.documentToJSONStringified(array, false));
+		Assert.assertEquals(JsonNull.INSTANCE, luces.getFieldValue("count", "123abc"));
+
+		luces.errorHandling(ErrorHandling.of(ErrorPolicy.NULL));
+		Assert.assertEquals("{\"id\":\"2\",\"count\":[1,null,3]}", luces.documentToJSONStringified(array, false));
+
+		luces.errorHandling(ErrorHandling.of(ErrorPolicy.DEFAULT));
+		Assert.assertEquals("{\"id\":\"1\",\"count\":0}", luces.documentToJSONStringified(single, false));
+		Assert.assertEquals("{\"id\":\"2\",\"count\":[1,0,3]}", luces.documentToJSONStringified(array, false));
+		Assert.assertEquals(0L, luces.getFieldValue("count", "123abc"));
+		Assert.assertEquals(7L, luces.getFieldValue("count", "7"));
+
+		Assert.assertEquals(3, sink.errors.size());
+		ConversionError error = sink.errors.get(0);
+		Assert.assertEquals("count", error.getField());
+		Assert.assertEquals(ParseType.INTEGER, error.getType());
+		Assert.assertEquals("123abc", error.getValue());
+		Assert.assertEquals("1", error.getDocumentId());
+		Assert.assertEquals("Error parsing count field: For input string: \"123abc\"", error.getMessage());
+		Assert.assertEquals("2", sink.errors.get(1).getDocumentId());
+		Assert.assertNull(sink.errors.get(2).getDocumentId());
+		Assert.assertTrue(sink.deadLetters.isEmpty());
+	}
+
+	@Test
+	public void testDeadLettersAreLeftOutOfBulkBodies() throws IOException {
+		RecordingSink sink = new RecordingSink();
+		ConcurrentLuces luces = new ConcurrentLuces(Version.LUCENE_36, MAPPING)
+				.errorHandling(ErrorHandling.of(ErrorPolicy.DEAD_LETTER).withSink(sink).withIdField("id"));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Document invalid = createDocument("2", "1", "x", "y");
+		int written = luces.documentsToBulk(Arrays.asList(createDocument("1", "5"), invalid, createDocument("3", "6")),
+				BulkOptions.forIndex("users").withIdField("id"), new OutputStreamBulkSink(out));
+
+		Assert.assertEquals(2, written);
+		Assert.assertEquals("{\"index\":{\"_index\":\"users\",\"_id\":\"1\"}}\n{\"id\":\"1\",\"count\":5}\n"
+				+ "{\"index\":{\"_index\":\"users\",\"_id\":\"3\"}}\n{\"id\":\"3\",\"count\":6}\n",
+				new String(out.toByteArray(), StandardCharsets.UTF_8));
+		Assert.assertTrue(sink.errors.isEmpty());
+		Assert.assertEquals(1, sink.deadLetters.size());
+		Assert.assertSame(invalid, sink.deadLetters.get(0));
+		Assert.assertEquals(2, sink.deadLetterErrors.get(0).size());
+		Assert.assertEquals("y", sink.deadLetterErrors.get(0).get(1).getValue());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDeadLettersNeedASink() {
+		new ConcurrentLuces(Version.LUCENE_36, MAPPING).errorHandling(ErrorHandling.of(ErrorPolicy.DEAD_LETTER));
+	}
+
+	private static Document createDocument(String id, String... counts) {
+		Document doc = new Document();
+		doc.add(new Field("id", id, Store.YES, Index.NOT_ANALYZED));
+		for (String count : counts) {
+			doc.add(new Field("count", count, Store.YES, Index.NOT_ANALYZED));
+		}
+		return doc;
+	}
+
+	private static final class RecordingSink implements ErrorSink {
+		final List<ConversionError> errors = new ArrayList<ConversionError>();
+		final List<Document> deadLetters = new ArrayList<Document>();
+		final List<List<ConversionError>> deadLetterErrors = new ArrayList<List<ConversionError>>();
+
+		@Override
+		public void invalidValue(ConversionError error) {
+			errors.add(error);
+		}
+
+		@Override
+		public void deadLetter(Document doc, List<ConversionError> errors) {
+			deadLetters.add(doc);
+			deadLetterErrors.add(errors);
+		}
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * LucesChangeFeedTest.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.lucene.analysis.WhitespaceAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.Field.Index;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.Version;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LucesChangeFeedTest {
+
+	private static final String ID = "id";
+
+	@Test
+	public void testSyncWritesOnlyChanges() throws IOException {
+		RAMDirectory directory = new RAMDirectory();
+		IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(Version.LUCENE_36,
+				new WhitespaceAnalyzer(Version.LUCENE_36)));
+		for (int i = 0; i < 5; ++i) {
+			writer.addDocument(createDocument(i, "a"));
+		}
+		writer.commit();
+		IndexReader first = IndexReader.open(directory);
+
+		writer.updateDocument(new Term(ID, "3"), createDocument(3, "b"));
+		writer.deleteDocuments(new Term(ID, "4"));
+		writer.addDocument(createDocument(5, "a"));
+		writer.commit();
+		IndexReader second = IndexReader.openIfChanged(first);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		LucesChangeFeed feed = createFeed(out);
+		LucesChangeFeed.Changes changes = feed.sync(first, second);
+		Assert.assertEquals(2, changes.getIndexed());
+		Assert.assertEquals(1, changes.getDeleted());
+		Assert.assertEquals(0, changes.getUnchangedSegments());
+		Assert.assertEquals("{\"delete\":{\"_index\":\"users\",\"_id\":\"4\"}}\n"
+				+ "{\"index\":{\"_index\":\"users\",\"_id\":\"3\"}}\n{\"id\":\"3\",\"name\":\"b\"}\n"
+				+ "{\"index\":{\"_index\":\"users\",\"_id\":\"5\"}}\n{\"id\":\"5\",\"name\":\"a\"}\n",
+				new String(out.toByteArray(), StandardCharsets.UTF_8));
+
+		writer.addDocument(createDocument(6, "a"));
+		writer.commit();
+		IndexReader third = IndexReader.openIfChanged(second);
+		out.reset();
+		changes = feed.sync(second, third);
+		Assert.assertEquals(1, changes.getIndexed());
+		Assert.assertEquals(0, changes.getDeleted());
+		Assert.assertEquals(2, changes.getUnchangedSegments());
+		Assert.assertEquals("{\"index\":{\"_index\":\"users\",\"_id\":\"6\"}}\n{\"id\":\"6\",\"name\":\"a\"}\n",
+				new String(out.toByteArray(), StandardCharsets.UTF_8));
+
+		writer.close();
+		first.close();
+		second.close();
+		third.close();
+	}
+
+	@Test
+	public void testMergedSegmentsAreIndexedAgain() throws IOException {
+		RAMDirectory directory = new RAMDirectory();
+		IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(Version.LUCENE_36,
+				new WhitespaceAnalyzer(Version.LUCENE_36)));
+		for (int i = 0; i < 4; ++i) {
+			writer.addDocument(createDocument(i, "a"));
+			writer.commit();
+		}
+		IndexReader before = IndexReader.open(directory);
+		writer.deleteDocuments(new Term(ID, "1"));
+		writer.forceMerge(1);
+		writer.close();
+		IndexReader after = IndexReader.openIfChanged(before);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		LucesChangeFeed.Changes changes = createFeed(out).sync(before, after);
+		Assert.assertEquals(3, changes.getIndexed());
+		Assert.assertEquals(1, changes.getDeleted());
+		Assert.assertTrue(new String(out.toByteArray(), StandardCharsets.UTF_8)
+				.startsWith("{\"delete\":{\"_index\":\"users\",\"_id\":\"1\"}}\n"));
+
+		Assert.assertEquals(3, createFeed(new ByteArrayOutputStream()).sync(null, after).getIndexed());
+		before.close();
+		after.close();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testIdFieldIsRequired() {
+		new LucesChangeFeed(createConverter(), BulkOptions.forIndex("users"), new OutputStreamBulkSink(
+				new ByteArrayOutputStream()));
+	}
+
+	private static LucesChangeFeed createFeed(ByteArrayOutputStream out) {
+		return new LucesChangeFeed(createConverter(), BulkOptions.forIndex("users").withIdField(ID),
+				new OutputStreamBulkSink(out));
+	}
+
+	private static ConcurrentLuces createConverter() {
+		return new ConcurrentLuces(Version.LUCENE_36, LucesMapping.UNMAPPED.withErrorIfMappingIsNull(false));
+	}
+
+	private static Document createDocument(int id, String name) {
+		Document doc = new Document();
+		doc.add(new Field(ID, String.valueOf(id), Store.YES, Index.NOT_ANALYZED));
+		doc.add(new Field("name", name, Store.YES, Index.NOT_ANALYZED));
+		return doc;
+	}
+}
@@ -0,0 +1,178 @@
+/*
+ * LucesReindexerTest.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.lucene.analysis.WhitespaceAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.Field.Index;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.Version;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+public class LucesReindexerTest {
+
+	private static final String ID = "id";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testReindexSkipsDeletedDocuments() throws IOException {
+		Directory directory = createIndex(1000, 7);
+		final Set<String> ids = new HashSet<>();
+		BulkSink sink = new BulkSink() {
+			@Override
+			public synchronized void flush(byte[] body, int length, int documentCount) {
+				String[] lines = new String(body, 0, length, StandardCharsets.UTF_8).split("\n");
+				Assert.assertEquals(2 * documentCount, lines.length);
+				for (int i = 0; i < lines.length; i += 2) {
+					String id = new JsonParser().parse(lines[i]).getAsJsonObject().getAsJsonObject("index")
+							.get("_id").getAsString();
+					JsonObject source = new JsonParser().parse(lines[i + 1]).getAsJsonObject();
+					Assert.assertEquals(id, source.get(ID).getAsString());
+					Assert.assertEquals(655351L, source.get("views").getAsLong());
+					Assert.assertTrue("Duplicate id " + id, ids.add(id));
+				}
+			}
+		};
+		long converted = new LucesReindexer(createConverter(), BulkOptions.forIndex("users").withIdField(ID)
+				.withMaxDocuments(25), sink)
+				.threads(4)
+				.rangeSize(100)
+				.maxPendingRanges(2)
+				.reindex(directory);
+
+		Assert.assertEquals(1000 - 143, converted);
+		Assert.assertEquals(converted, ids.size());
+		for (int i = 0; i < 1000; ++i) {
+			Assert.assertEquals(i % 7 != 0, ids.contains(String.valueOf(i)));
+		}
+	}
+
+	@Test
+	public void testReindexToFiles() throws IOException {
+		File output = new File(folder.getRoot(), "bulk");
+		FileBulkSink sink = new FileBulkSink(output, "users");
+		long converted = new LucesReindexer(createConverter(), BulkOptions.forIndex("users").withMaxDocuments(10), sink)
+				.rangeSize(50)
+				.reindex(createIndex(100, 1000));
+		Assert.assertEquals(99, converted);
+		Assert.assertEquals(10, sink.getFileCount());
+		int lines = 0;
+		for (File file : output.listFiles()) {
+			lines += Files.readAllLines(file.toPath(), StandardCharsets.UTF_8).size();
+		}
+		Assert.assertEquals(2 * 99, lines);
+	}
+
+	@Test
+	public void testReindexLoadsOnlyProjectedFields() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		FieldProjection projection = FieldProjection.include("views", "login");
+		long converted = new LucesReindexer(createConverter(), BulkOptions.forIndex("users").withIdField(ID),
+				new OutputStreamBulkSink(out))
+				.threads(1)
+				.fieldSelector(projection)
+				.reindex(createIndex(3, 1000));
+		Assert.assertEquals(2, converted);
+		String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+		Assert.assertEquals("{\"index\":{\"_index\":\"users\",\"_id\":\"1\"}}", lines[0]);
+		// the id field is loaded for the action line, and converted with the rest
+		Assert.assertEquals("{\"login\":\"trogdor\",\"views\":655351,\"id\":\"1\"}", lines[1]);
+	}
+
+	@Test
+	public void testReindexOnVirtualThreads() throws IOException {
+		final AtomicInteger documents = new AtomicInteger();
+		BulkSink counting = new BulkSink() {
+			@Override
+			public void flush(byte[] body, int length, int documentCount) {
+				documents.addAndGet(documentCount);
+			}
+		};
+		// falls back to platform threads before JDK 21
+		long converted = new LucesReindexer(createConverter(), BulkOptions.forIndex("users"), counting)
+				.virtualThreads(true)
+				.rangeSize(10)
+				.maxPendingRanges(16)
+				.reindex(createIndex(200, 1000));
+		Assert.assertEquals(199, converted);
+		Assert.assertEquals(199, documents.get());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testSinkFailureStopsReindex() throws IOException {
+		BulkSink failing = new BulkSink() {
+			@Override
+			public void flush(byte[] body, int length, int documentCount) {
+				throw new IllegalStateException("sink is down");
+			}
+		};
+		new LucesReindexer(createConverter(), BulkOptions.forIndex("users"), failing).rangeSize(10)
+				.reindex(createIndex(100, 1000));
+	}
+
+	private static ConcurrentLuces createConverter() {
+		return new ConcurrentLuces(Version.LUCENE_36, LucesMapping.compile(LucesTest.TYPE, LucesTest.createMapping()));
+	}
+
+	/**
+	 * @return an index of user documents with sequential ids, where every id divisible by deleteEvery is deleted
+	 */
+	static Directory createIndex(int count, int deleteEvery) throws IOException {
+		Directory directory = new RAMDirectory();
+		IndexWriter writer = new IndexWriter(directory,
+				new IndexWriterConfig(Version.LUCENE_36, new WhitespaceAnalyzer(Version.LUCENE_36)));
+		for (int i = 0; i < count; ++i) {
+			Document doc = new Document();
+			for (Field field : LucesTest.createMockFlatUserDocument().getFields().toArray(new Field[0])) {
+				doc.add(new Field(field.name(), field.stringValue(), Store.YES, Index.NOT_ANALYZED));
+			}
+			doc.add(new Field(ID, String.valueOf(i), Store.YES, Index.NOT_ANALYZED));
+			writer.addDocument(doc);
+		}
+		for (int i = 0; i < count; i += deleteEvery) {
+			writer.deleteDocuments(new Term(ID, String.valueOf(i)));
+		}
+		writer.close();
+		return directory;
+	}
+}
@@ -19,22 +19,33 @@
 
 package com.lithium.luces;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
+import java.util.Map;
 import java.util.NoSuchElementException;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.Field.Index;
 import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.FieldSelectorResult;
+import org.apache.lucene.document.NumericField;
 import org.apache.lucene.util.Version;
 import org.junit.Assert;
 import org.junit.Test;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,7 +56,8 @@ import org.slf4j.LoggerFactory;
 public class LucesTest {
 	private static final Logger log = LoggerFactory.getLogger(LucesTest.class);
 
-	private static final String TYPE = "testType";
+	static final String TYPE = "testType";
+	private static final String NESTED_TYPE = "post";
 	private static final String LOGIN = "login";
 	private static final String FIRST_NAME = "name_first";
 	private static final String LAST_NAME = "name_last";
@@ -346,6 +358,351 @@ public class LucesTest {
 		Assert.assertEquals(EMAIL3, array.get(2).getAsString());
 	}
 
+	@Test
+	public void testManyRepeatedFieldsKeepFirstSeenOrder() {
+		Document doc = new Document();
+		JsonObject expected = new JsonObject();
+		for (int i = 0; i < 300; ++i) {
+			doc.add(new Field("tag", "t" + i, Store.NO, Index.ANALYZED));
+			if (!expected.has("tag")) {
+				expected.add("tag", new JsonArray());
+			}
+			expected.getAsJsonArray("tag").add(new JsonPrimitive("t" + i));
+			if (i % 3 == 0) {
+				String name = "field" + i % 120;
+				doc.add(new Field(name, "v" + i, Store.NO, Index.ANALYZED));
+				if (!expected.has(name)) {
+					expected.add(name, new JsonArray());
+				}
+				expected.getAsJsonArray(name).add(new JsonPrimitive("v" + i));
+			}
+		}
+		for (Map.Entry<String, JsonElement> entry : expected.entrySet()) {
+			JsonArray values = entry.getValue().getAsJsonArray();
+			if (values.size() == 1) {
+				entry.setValue(values.get(0));
+			}
+		}
+		Luces luces = new Luces(Version.LUCENE_36).throwErrorIfMappingIsNull(false);
+		Assert.assertEquals(expected.toString(), luces.documentToJSONStringified(doc, false));
+		// the grouping left nothing behind for the next document
+		Assert.assertEquals("{\"tag\":\"t0\",\"field0\":\"v0\"}",
+				luces.documentToJSONStringified(createDocument("tag", "t0", "field0", "v0"), false));
+	}
+
+	private static Document createDocument(String... namesAndValues) {
+		Document doc = new Document();
+		for (int i = 0; i < namesAndValues.length; i += 2) {
+			doc.add(new Field(namesAndValues[i], namesAndValues[i + 1], Store.NO, Index.ANALYZED));
+		}
+		return doc;
+	}
+
+	@Test
+	public void testInvalidNumberErrorMessage() {
+		Luces luces = new Luces(Version.LUCENE_36).mapping(TYPE, createMapping()).useDefaultsForEmpty(true);
+		try {
+			luces.getFieldValue(VIEWS, " 123abc ");
+			Assert.fail("NumberFormatException should have been thrown");
+		} catch (NumberFormatException ex) {
+			Assert.assertEquals("Error parsing views field: For input string: \"123abc\"", ex.getMessage());
+		}
+		Assert.assertEquals(0L, luces.getFieldValue(VIEWS, " \t "));
+		Assert.assertEquals(0.0, luces.getFieldValue(RATING, ""));
+	}
+
+	@Test
+	public void testStreamingOutputMatchesGsonTree() throws Exception {
+		Document doc = createMockFlatUserDocumentWithMultipleValueForGenderField();
+		doc.add(new Field(EMAIL_FIELD, "<b>\"quoted\" & 'escaped'</b>\u2028", Store.NO, Index.ANALYZED));
+		doc.add(new Field(GENDER, "other", Store.NO, Index.ANALYZED));
+		doc.add(new Field(VIEWS, " ", Store.NO, Index.ANALYZED));
+		Luces luces = new Luces(Version.LUCENE_36).throwErrorIfMappingIsNull(false);
+		for (boolean pretty : new boolean[] {false, true}) {
+			Gson gson = pretty ? new GsonBuilder().setPrettyPrinting().create() : new Gson();
+			luces.mapping(TYPE, null);
+			Assert.assertEquals(gson.toJson(luces.documentToJSON(doc)), luces.documentToJSONStringified(doc, pretty));
+
+			luces.mapping(TYPE, createMapping()).useNullForEmpty(true);
+			String expected = gson.toJson(luces.documentToJSON(doc));
+			Assert.assertEquals(expected, luces.documentToJSONStringified(doc, pretty));
+
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			luces.writeJSON(doc, bytes, pretty);
+			Assert.assertEquals(expected, new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	public void testSharedGsonSerializesDocuments() {
+		Luces luces = new Luces(Version.LUCENE_36).mapping(TYPE, createMapping());
+		Document doc = createMockFlatUserDocument();
+		Assert.assertSame(luces.getGson(false), luces.getGson(false));
+		Assert.assertEquals("[" + luces.documentToJSONStringified(doc, false) + ",null]",
+				luces.getGson(false).toJson(Arrays.asList(doc, null)));
+		Assert.assertEquals(luces.documentToJSONStringified(doc, true), luces.getGson(true).toJson(doc));
+	}
+
+	@Test
+	public void testNonFiniteDoubleIsRejected() {
+		Document doc = createMockFlatUserDocument();
+		doc.removeField(RATING);
+		doc.add(new Field(RATING, "NaN", Store.NO, Index.ANALYZED));
+		Luces luces = new Luces(Version.LUCENE_36).mapping(TYPE, createMapping());
+		try {
+			luces.documentToJSON(doc);
+			Assert.fail("IllegalArgumentException should have been thrown");
+		} catch (IllegalArgumentException ex) {
+			Assert.assertTrue(ex.getMessage().startsWith("NaN is not a valid double value"));
+		}
+		try {
+			luces.documentToJSONStringified(doc, false);
+			Assert.fail("IllegalArgumentException should have been thrown");
+		} catch (IllegalArgumentException ex) {
+			Assert.assertTrue(ex.getMessage().startsWith("NaN is not a valid double value"));
+		}
+	}
+
+	@Test
+	public void testFieldNamesThatAreNotInterned() {
+		Luces luces = new Luces(Version.LUCENE_36).mapping(TYPE, createMapping());
+		Assert.assertEquals(655351L, luces.getFieldValue(new String(VIEWS.toCharArray()), " 655351"));
+		Assert.assertEquals(true, luces.getFieldValue(new String(REGISTERED.toCharArray()), "true"));
+	}
+
+	@Test
+	public void testStreamingEmptyDocument() {
+		Luces luces = new Luces(Version.LUCENE_36).mapping(TYPE, createMapping());
+		Assert.assertEquals("{}", luces.documentToJSONStringified(new Document(), false));
+		Assert.assertEquals("{}", luces.documentToJSONStringified(new Document(), true));
+	}
+
+	@Test
+	public void testUnmappedFieldsAreCounted() {
+		Luces luces = new Luces(Version.LUCENE_36).mapping(TYPE, createMapping());
+		Document doc = createMockFlatUserDocument();
+		doc.add(new Field("nickname", "trog", Store.NO, Index.ANALYZED));
+		doc.add(new Field("nickname", "burninator", Store.NO, Index.ANALYZED));
+		luces.documentToJSONStringified(doc, false);
+		luces.documentToJSON(doc);
+		Assert.assertEquals("trog", luces.getFieldValue("nickname", "trog"));
+		Assert.assertEquals(Long.valueOf(5), luces.getUnmappedFields().snapshot().get("nickname"));
+		Assert.assertNull(luces.getUnmappedFields().snapshot().get(VIEWS));
+
+		luces.getUnmappedFields().reset();
+		Assert.assertTrue(luces.getUnmappedFields().snapshot().isEmpty());
+	}
+
+	@Test
+	public void testUnmappedFieldNamesAreCapped() {
+		Luces luces = new Luces(Version.LUCENE_36).mapping(TYPE, createMapping());
+		for (int i = 0; i < UnmappedFields.MAX_TRACKED_FIELDS + 10; ++i) {
+			Assert.assertEquals("x", luces.getFieldValue("generated" + i, "x"));
+		}
+		luces.getFieldValue("generated0", "x");
+		Assert.assertEquals(UnmappedFields.MAX_TRACKED_FIELDS, luces.getUnmappedFields().snapshot().size());
+		Assert.assertEquals(Long.valueOf(2), luces.getUnmappedFields().snapshot().get("generated0"));
+		Assert.assertEquals(10, luces.getUnmappedFields().getUntrackedCount());
+
+		luces.getUnmappedFields().reset();
+		Assert.assertEquals(0, luces.getUnmappedFields().getUntrackedCount());
+	}
+
+	@Test
+	public void testUnmappedFieldsWithoutMappingAreNotCounted() {
+		Luces luces = new Luces(Version.LUCENE_36).throwErrorIfMappingIsNull(false);
+		luces.documentToJSON(createMockFlatUserDocument());
+		Assert.assertTrue(luces.getUnmappedFields().snapshot().isEmpty());
+	}
+
+	@Test
+	public void testNestedMappingTypesDottedNames() {
+		Luces luces = new Luces(Version.LUCENE_36).mapping(NESTED_TYPE, createNestedMapping());
+		Assert.assertEquals(42L, luces.getFieldValue("author.age", " 42 "));
+		Assert.assertEquals(12345L, luces.getFieldValue("author.address.zip", "12345"));
+		Assert.assertEquals("Joe", luces.getFieldValue("author.name", "Joe"));
+		Assert.assertEquals("{\"title\":\"Hello\",\"author.name\":\"Joe\",\"tags\":\"x\",\"comments.votes\":[3,4],"
+				+ "\"author.address.zip\":12345,\"author.age\":42}",
+				luces.documentToJSONStringified(createNestedDocument(), false));
+		Assert.assertTrue(luces.getUnmappedFields().snapshot().containsKey("tags"));
+		Assert.assertFalse(luces.getUnmappedFields().snapshot().containsKey("author.name"));
+	}
+
+	@Test
+	public void testNestedObjects() throws IOException {
+		Luces luces = new Luces(Version.LUCENE_36).mapping(NESTED_TYPE, createNestedMapping()).useNestedObjects(true);
+		String expected = "{\"title\":\"Hello\",\"author\":{\"name\":\"Joe\",\"address\":{\"zip\":12345},\"age\":42},"
+				+ "\"tags\":\"x\",\"comments\":{\"votes\":[3,4]}}";
+		Document doc = createNestedDocument();
+		Assert.assertEquals(expected, luces.documentToJSONStringified(doc, false));
+		Assert.assertEquals(expected, luces.documentToJSON(doc).toString());
+		Assert.assertEquals(new JsonParser().parse(expected), new JsonParser().parse(
+				luces.documentToJSONStringified(doc, true)));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		luces.writeJSON(doc, out, false);
+		Assert.assertEquals(expected, new String(out.toByteArray(), StandardCharsets.UTF_8));
+
+		// the option survives changes to the other options
+		Assert.assertTrue(luces.useDefaultsForEmpty(true).getMapping().isNestedObjects());
+		Assert.assertEquals("{\"title\":\"Hello\"}", luces.documentToJSONStringified(createSingleFieldDocument(), false));
+	}
+
+	@Test
+	public void testConversionContextIsReused() throws IOException {
+		Luces luces = new Luces(Version.LUCENE_36).mapping(NESTED_TYPE, createNestedMapping()).useNestedObjects(true);
+		ConversionContext context = new ConversionContext();
+		// larger documents first, so that the later ones reuse longer scratch arrays
+		Document[] docs = {createNestedDocument(), createSingleFieldDocument(), createNestedDocument(), new Document()};
+		for (Document doc : docs) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			luces.writeJSON(doc, out, context);
+			Assert.assertEquals(luces.documentToJSONStringified(doc, false),
+					new String(out.toByteArray(), StandardCharsets.UTF_8));
+		}
+
+		// a context that is in use isn't handed out twice
+		ConversionContext current = ConversionContext.acquire();
+		try {
+			Assert.assertNotSame(current, ConversionContext.acquire());
+			Assert.assertEquals("{\"title\":\"Hello\"}",
+					luces.documentToJSONStringified(createSingleFieldDocument(), false));
+		} finally {
+			current.release();
+		}
+		Assert.assertSame(current, ConversionContext.acquire());
+		current.release();
+	}
+
+	@Test
+	public void testProjection() {
+		Luces luces = new Luces(Version.LUCENE_36).mapping(NESTED_TYPE, createNestedMapping());
+		Document doc = createNestedDocument();
+		luces.projection(FieldProjection.mapped(luces.getMapping()).withExcluded("author.name"));
+		Assert.assertEquals("{\"title\":\"Hello\",\"comments.votes\":[3,4],\"author.address.zip\":12345,"
+				+ "\"author.age\":42}", luces.documentToJSONStringified(doc, false));
+		luces.useNestedObjects(true);
+		Assert.assertEquals("{\"title\":\"Hello\",\"comments\":{\"votes\":[3,4]},"
+				+ "\"author\":{\"address\":{\"zip\":12345},\"age\":42}}", luces.documentToJSONStringified(doc, false));
+
+		// skipped values are never parsed
+		doc.add(new Field("author.name", "not skipped", Store.NO, Index.ANALYZED));
+		doc.add(new Field("comments.votes", "not a number", Store.NO, Index.ANALYZED));
+		luces.projection(FieldProjection.exclude("comments.votes", "tags"));
+		Assert.assertEquals("{\"title\":\"Hello\",\"author\":{\"name\":[\"Joe\",\"not skipped\"],"
+				+ "\"address\":{\"zip\":12345},\"age\":42}}", luces.documentToJSONStringified(doc, false));
+		luces.projection(FieldProjection.include("tags"));
+		Assert.assertEquals("{\"tags\":\"x\"}", luces.documentToJSONStringified(doc, false));
+		Assert.assertEquals(FieldSelectorResult.NO_LOAD, FieldProjection.include("tags").accept("title"));
+		Assert.assertEquals(FieldSelectorResult.LOAD, FieldProjection.include("tags").accept("tags"));
+	}
+
+	@Test
+	public void testNestedMappingWithoutType() {
+		JsonObject mapping = createNestedMapping();
+		mapping.getAsJsonObject(NESTED_TYPE).getAsJsonObject("properties").getAsJsonObject("author")
+				.getAsJsonObject("properties").getAsJsonObject("name").remove("type");
+		try {
+			new Luces(Version.LUCENE_36).mapping(NESTED_TYPE, mapping);
+			Assert.fail("Expected a NoSuchElementException");
+		} catch (NoSuchElementException ex) {
+			Assert.assertEquals("Invalid mapping: No type defined for author.name field.", ex.getMessage());
+		}
+	}
+
+	private static JsonObject createNestedMapping() {
+		return new JsonParser().parse("{\"" + NESTED_TYPE + "\":{\"properties\":{"
+				+ "\"title\":{\"type\":\"string\"},"
+				+ "\"author\":{\"type\":\"object\",\"properties\":{"
+				+ "\"name\":{\"type\":\"string\"},"
+				+ "\"age\":{\"type\":\"integer\"},"
+				+ "\"address\":{\"properties\":{\"zip\":{\"type\":\"integer\"}}}}},"
+				+ "\"comments\":{\"type\":\"nested\",\"properties\":{\"votes\":{\"type\":\"long\"}}}}}}")
+				.getAsJsonObject();
+	}
+
+	private static Document createNestedDocument() {
+		Document doc = createSingleFieldDocument();
+		doc.add(new Field("author.name", "Joe", Store.NO, Index.ANALYZED));
+		doc.add(new Field("tags", "x", Store.NO, Index.ANALYZED));
+		doc.add(new Field("comments.votes", "3", Store.NO, Index.ANALYZED));
+		doc.add(new Field("author.address.zip", "12345", Store.NO, Index.ANALYZED));
+		doc.add(new Field("comments.votes", "4", Store.NO, Index.ANALYZED));
+		doc.add(new Field("author.age", " 42 ", Store.NO, Index.ANALYZED));
+		return doc;
+	}
+
+	private static Document createSingleFieldDocument() {
+		Document doc = new Document();
+		doc.add(new Field("title", "Hello", Store.NO, Index.ANALYZED));
+		return doc;
+	}
+
+	@Test
+	public void testElasticsearchCoreTypes() {
+		JsonObject mapping = new JsonParser().parse("{\"" + NESTED_TYPE + "\":{\"properties\":{"
+				+ "\"tag\":{\"type\":\"keyword\"},\"body\":{\"type\":\"text\"},\"address\":{\"type\":\"ip\"},"
+				+ "\"location\":{\"type\":\"geo_point\"},\"blob\":{\"type\":\"binary\"},"
+				+ "\"score\":{\"type\":\"half_float\"},\"price\":{\"type\":\"scaled_float\",\"scaling_factor\":100},"
+				+ "\"words\":{\"type\":\"token_count\"}}}}").getAsJsonObject();
+		Luces luces = new Luces(Version.LUCENE_36).mapping(NESTED_TYPE, mapping);
+		Assert.assertEquals(" a tag ", luces.getFieldValue("tag", " a tag "));
+		Assert.assertEquals("some text", luces.getFieldValue("body", "some text"));
+		Assert.assertEquals("10.0.0.1", luces.getFieldValue("address", " 10.0.0.1 "));
+		Assert.assertEquals("192.168.0.1", luces.getFieldValue("address", String.valueOf(0xC0A80001L)));
+		Assert.assertEquals("41.12,-71.34", luces.getFieldValue("location", "41.12,-71.34"));
+		Assert.assertEquals("aGVsbG8=", luces.getFieldValue("blob", "aGVsbG8="));
+		Assert.assertEquals(0.5, luces.getFieldValue("score", "0.5"));
+		Assert.assertEquals(9.99, luces.getFieldValue("price", "9.99"));
+		Assert.assertEquals(12L, luces.getFieldValue("words", "12"));
+		Assert.assertTrue(luces.getUnmappedFields().snapshot().isEmpty());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testIpOutOfRange() {
+		JsonObject mapping = new JsonParser().parse("{\"" + NESTED_TYPE + "\":{\"properties\":{"
+				+ "\"address\":{\"type\":\"ip\"}}}}").getAsJsonObject();
+		new Luces(Version.LUCENE_36).mapping(NESTED_TYPE, mapping).getFieldValue("address", "4294967296");
+	}
+
+	@Test
+	public void testNumericFields() {
+		Luces luces = new Luces(Version.LUCENE_36).mapping(TYPE, createMapping());
+		Document doc = new Document();
+		doc.add(new NumericField(VIEWS, Store.YES, true).setIntValue(655351));
+		doc.add(new NumericField(RATING, Store.YES, true).setFloatValue(4.2453f));
+		doc.add(new NumericField(NEG_BYTE, Store.YES, true).setLongValue(-12L));
+		// a numeric value for a string field, and for a field that isn't mapped
+		doc.add(new NumericField(LOGIN, Store.YES, true).setDoubleValue(1.5));
+		doc.add(new NumericField("unmapped", Store.YES, true).setIntValue(7));
+		String expected = "{\"views\":655351,\"rating\":4.2453,\"negByteField\":-12,\"login\":\"1.5\",\"unmapped\":\"7\"}";
+		Assert.assertEquals(expected, luces.documentToJSONStringified(doc, false));
+		Assert.assertEquals(expected, luces.documentToJSON(doc).toString());
+		Assert.assertEquals(655351L, luces.getFieldValue(doc.getFieldable(VIEWS)));
+		Assert.assertEquals(4.2453, luces.getFieldValue(doc.getFieldable(RATING)));
+		Assert.assertEquals("1.5", luces.getFieldValue(doc.getFieldable(LOGIN)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNumericFieldNaN() {
+		Document doc = new Document();
+		doc.add(new NumericField(RATING, Store.YES, true).setFloatValue(Float.NaN));
+		new Luces(Version.LUCENE_36).mapping(TYPE, createMapping()).documentToJSONStringified(doc, false);
+	}
+
+	@Test
+	public void testBinaryFields() throws IOException {
+		Luces luces = new Luces(Version.LUCENE_36).mapping(TYPE, createMapping());
+		Document doc = new Document();
+		doc.add(new Field("blob", "hello".getBytes(StandardCharsets.US_ASCII)));
+		doc.add(new Field(LOGIN, "trogdor", Store.YES, Index.NOT_ANALYZED));
+		String expected = "{\"blob\":\"aGVsbG8\\u003d\",\"login\":\"trogdor\"}";
+		Assert.assertEquals(expected, luces.documentToJSONStringified(doc, false));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		luces.writeJSON(doc, out, false);
+		Assert.assertEquals(expected, new String(out.toByteArray(), StandardCharsets.UTF_8));
+		Assert.assertEquals("aGVsbG8=", luces.getFieldValue(doc.getFieldable("blob")));
+	}
+
 	@Test(expected = UnsupportedOperationException.class)
 	public void testUnsupportedVersion() {
 		Luces luces = new Luces(Version.LUCENE_30);
@@ -356,10 +713,10 @@ public class LucesTest {
 		Luces luces = new Luces(Version.LUCENE_36);
 	}
 
-	private Document createMockFlatUserDocument() {
+	static Document createMockFlatUserDocument() {
 		return createMockFlatUserDocument(false);
 	}
-	private Document createMockFlatUserDocument(boolean randomize) {
+	static Document createMockFlatUserDocument(boolean randomize) {
 		int randomNum = 0;
 		if (randomize) {
 			randomNum = (int)(Math.random() * 100);
@@ -435,7 +792,7 @@ public class LucesTest {
 		return doc;
 	}
 
-	private static JsonObject createMapping() {
+	static JsonObject createMapping() {
 		JsonObject mapping = new JsonObject();
 		JsonObject typeObject = new JsonObject();
 		JsonObject propertiesObject = new JsonObject();
@@ -0,0 +1,134 @@
+/*
+ * MappedFileBulkSinkTest.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.util.Version;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MappedFileBulkSinkTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testSegmentsMatchStreamOutput() throws IOException {
+		Luces luces = new Luces(Version.LUCENE_36).mapping(LucesTest.TYPE, LucesTest.createMapping());
+		List<Document> docs = BulkWriterTest.createDocuments(10);
+		BulkOptions options = BulkOptions.forIndex("users").withIdField("id").withMaxDocuments(2);
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		luces.documentsToBulk(docs, options, new OutputStreamBulkSink(expected));
+		int bodySize = expected.size() / 5;
+
+		// room for two and a half bodies per segment
+		MappedFileBulkSink sink = new MappedFileBulkSink(folder.getRoot(), "users").maxSegmentBytes(bodySize * 5 / 2);
+		try {
+			luces.documentsToBulk(docs, options, sink);
+		} finally {
+			sink.close();
+		}
+		List<MappedFileBulkSink.Segment> segments = sink.getSegments();
+		Assert.assertEquals(3, segments.size());
+		ByteArrayOutputStream actual = new ByteArrayOutputStream();
+		StringBuilder manifest = new StringBuilder();
+		int documents = 0;
+		for (MappedFileBulkSink.Segment segment : segments) {
+			byte[] bytes = Files.readAllBytes(segment.getFile().toPath());
+			Assert.assertEquals(segment.getBytes(), bytes.length);
+			Assert.assertTrue(bytes.length <= bodySize * 5 / 2);
+			actual.write(bytes);
+			documents += segment.getDocuments();
+			manifest.append("{\"file\":\"").append(segment.getFile().getName()).append("\",\"bytes\":")
+					.append(segment.getBytes()).append(",\"documents\":").append(segment.getDocuments()).append("}\n");
+		}
+		Assert.assertEquals(10, documents);
+		Assert.assertEquals("users-000001.ndjson", segments.get(0).getFile().getName());
+		Assert.assertEquals(new String(expected.toByteArray(), StandardCharsets.UTF_8),
+				new String(actual.toByteArray(), StandardCharsets.UTF_8));
+		Assert.assertEquals(manifest.toString(),
+				new String(Files.readAllBytes(sink.getManifest().toPath()), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testBodiesSpanningWindows() throws IOException {
+		byte[] body = new byte[MappedFileBulkSink.WINDOW_BYTES / 2 + 1];
+		for (int i = 0; i < body.length; ++i) {
+			body[i] = (byte) ('a' + i % 26);
+		}
+		MappedFileBulkSink sink = new MappedFileBulkSink(new File(folder.getRoot(), "out"), "big")
+				.syncPolicy(MappedFileBulkSink.SyncPolicy.BODY).maxSegmentBytes(10);
+		sink.flush(body, body.length, 1);
+		sink.close();
+		sink.close();
+		// a body larger than the segment size gets a segment to itself
+		Assert.assertEquals(1, sink.getSegments().size());
+		Assert.assertArrayEquals(body, Files.readAllBytes(sink.getSegments().get(0).getFile().toPath()));
+
+		sink = new MappedFileBulkSink(new File(folder.getRoot(), "out"), "big").syncPolicy(
+				MappedFileBulkSink.SyncPolicy.NONE);
+		for (int i = 0; i < 3; ++i) {
+			sink.flush(body, body.length, 1);
+		}
+		sink.close();
+		byte[] written = Files.readAllBytes(sink.getSegments().get(0).getFile().toPath());
+		Assert.assertEquals(body.length * 3, written.length);
+		Assert.assertEquals(body[body.length - 1], written[body.length * 3 - 1]);
+		Assert.assertEquals(1, Files.readAllLines(sink.getManifest().toPath(), StandardCharsets.UTF_8).size());
+	}
+
+	@Test
+	public void testWindowsFitTheSegmentSize() throws IOException {
+		byte[] body = "{\"index\":{}}\n{}\n".getBytes(StandardCharsets.UTF_8);
+		MappedFileBulkSink sink = new MappedFileBulkSink(folder.getRoot(), "small").maxSegmentBytes(100);
+		try {
+			sink.flush(body, body.length, 1);
+			// an open segment is at most one segment long, rather than a whole window
+			File open = new File(folder.getRoot(), "small-000001.ndjson");
+			Assert.assertTrue(open.length() <= 100);
+			for (int i = 0; i < 20; ++i) {
+				sink.flush(body, body.length, 1);
+				Assert.assertTrue(open.length() <= 100);
+			}
+		} finally {
+			sink.close();
+		}
+		Assert.assertEquals(4, sink.getSegments().size());
+		for (MappedFileBulkSink.Segment segment : sink.getSegments()) {
+			Assert.assertEquals(segment.getBytes(), segment.getFile().length());
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testFlushAfterClose() throws IOException {
+		MappedFileBulkSink sink = new MappedFileBulkSink(folder.getRoot(), "closed");
+		sink.close();
+		sink.flush(new byte[1], 1, 1);
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * MappingCacheTest.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.util.NoSuchElementException;
+
+import org.apache.lucene.util.Version;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+public class MappingCacheTest {
+
+	@Test
+	public void testSwitchingBetweenMappings() {
+		MappingCache cache = new MappingCache();
+		Luces luces = new Luces(Version.LUCENE_36).mappingCache(cache);
+		luces.mapping(LucesTest.TYPE, LucesTest.createMapping());
+		LucesMapping first = luces.getMapping();
+		luces.mapping(LucesTest.TYPE, mapping("{\"views\":{\"type\":\"long\"}}"));
+		luces.mapping(LucesTest.TYPE, LucesTest.createMapping());
+		Assert.assertSame(first, luces.getMapping());
+		Assert.assertEquals(1, cache.getHits());
+		Assert.assertEquals(2, cache.getMisses());
+		Assert.assertEquals(2, cache.size());
+
+		// other options are a different entry
+		luces.useDefaultsForEmpty(true).mapping(LucesTest.TYPE, LucesTest.createMapping());
+		Assert.assertNotSame(first, luces.getMapping());
+		Assert.assertTrue(luces.getMapping().isUseDefaultsForEmpty());
+		Assert.assertEquals(3, cache.getMisses());
+	}
+
+	@Test
+	public void testStructuralHash() {
+		long hash = MappingCache.hash(mapping("{\"a\":{\"type\":\"long\"},\"b\":{\"type\":\"date\",\"format\":\"x||y\"}}"));
+		Assert.assertEquals(hash, MappingCache.hash(
+				mapping("{\"b\":{\"format\":\"x||y\",\"type\":\"date\"},\"a\":{\"type\":\"long\"}}")));
+		Assert.assertNotEquals(hash, MappingCache.hash(
+				mapping("{\"a\":{\"type\":\"long\"},\"b\":{\"type\":\"date\",\"format\":\"y||x\"}}")));
+		Assert.assertNotEquals(hash, MappingCache.hash(
+				mapping("{\"b\":{\"type\":\"long\"},\"a\":{\"type\":\"date\",\"format\":\"x||y\"}}")));
+		Assert.assertNotEquals(MappingCache.hash(new JsonParser().parse("[1,2]")),
+				MappingCache.hash(new JsonParser().parse("[2,1]")));
+		Assert.assertNotEquals(MappingCache.hash(new JsonParser().parse("1")),
+				MappingCache.hash(new JsonParser().parse("\"1\"")));
+	}
+
+	@Test
+	public void testLeastRecentlyUsedIsEvicted() {
+		MappingCache cache = new MappingCache(2);
+		LucesMapping a = cache.compile(LucesTest.TYPE, mapping("{\"a\":{\"type\":\"long\"}}"));
+		cache.compile(LucesTest.TYPE, mapping("{\"b\":{\"type\":\"long\"}}"));
+		Assert.assertSame(a, cache.compile(LucesTest.TYPE, mapping("{\"a\":{\"type\":\"long\"}}")));
+		cache.compile(LucesTest.TYPE, mapping("{\"c\":{\"type\":\"long\"}}"));
+		Assert.assertEquals(1, cache.getEvictions());
+		Assert.assertSame(a, cache.compile(LucesTest.TYPE, mapping("{\"a\":{\"type\":\"long\"}}")));
+		Assert.assertEquals(2, cache.getHits());
+		Assert.assertEquals(3, cache.getMisses());
+
+		// invalid and null mappings aren't cached
+		try {
+			cache.compile("other", mapping("{\"a\":{\"type\":\"long\"}}"));
+			Assert.fail("Expected a NoSuchElementException");
+		} catch (NoSuchElementException expected) {
+			Assert.assertEquals(2, cache.size());
+		}
+		Assert.assertFalse(cache.compile(null, null).isMapped());
+		cache.clear();
+		Assert.assertEquals(0, cache.size());
+	}
+
+	private static JsonObject mapping(String properties) {
+		return new JsonParser().parse("{\"" + LucesTest.TYPE + "\":{\"properties\":" + properties + "}}")
+				.getAsJsonObject();
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * RoutingLucesTest.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.util.NoSuchElementException;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.Field.Index;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.util.Version;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.gson.JsonParser;
+
+public class RoutingLucesTest {
+
+	private static final String TYPE_FIELD = "_type";
+
+	@Test
+	public void testDocumentsAreRoutedByType() {
+		RoutingLuces luces = new RoutingLuces(Version.LUCENE_36, TYPE_FIELD)
+				.register(compile("user", "{\"id\":{\"type\":\"integer\"}}"))
+				.register(compile("post", "{\"id\":{\"type\":\"string\"},\"views\":{\"type\":\"long\"}}"));
+		Assert.assertEquals("{\"_type\":\"user\",\"id\":1}",
+				luces.documentToJSONStringified(createDocument("user", "1"), false));
+		Assert.assertEquals("{\"_type\":\"post\",\"id\":\"1\"}",
+				luces.documentToJSONStringified(createDocument("post", "1"), false));
+		Assert.assertEquals("{\"_type\":\"user\",\"id\":2}", luces.documentToJSON(createDocument("user", "2")).toString());
+
+		try {
+			luces.documentToJSONStringified(createDocument("comment", "1"), false);
+			Assert.fail("Expected a NoSuchElementException");
+		} catch (NoSuchElementException ex) {
+			Assert.assertEquals("No mapping registered for type comment", ex.getMessage());
+		}
+		luces.fallback(LucesMapping.UNMAPPED.withErrorIfMappingIsNull(false));
+		Assert.assertEquals("{\"_type\":\"comment\",\"id\":\"1\"}",
+				luces.documentToJSONStringified(createDocument("comment", "1"), false));
+		Assert.assertEquals("1", luces.getFieldValue("id", "1"));
+
+		luces.register("comment", luces.getMappings().get("user"));
+		Assert.assertEquals("{\"_type\":\"comment\",\"id\":1}",
+				luces.documentToJSONStringified(createDocument("comment", "1"), false));
+	}
+
+	@Test
+	public void testRouter() {
+		RoutingLuces luces = new RoutingLuces(Version.LUCENE_36, new RoutingLuces.Router() {
+			@Override
+			public String route(Document doc) {
+				return doc.get("views") == null ? "user" : "post";
+			}
+		});
+		luces.register(compile("user", "{\"id\":{\"type\":\"integer\"}}"))
+				.register(compile("post", "{\"views\":{\"type\":\"long\"}}"));
+		Document post = new Document();
+		post.add(new Field("views", "7", Store.YES, Index.NOT_ANALYZED));
+		Assert.assertEquals("{\"views\":7}", luces.documentToJSONStringified(post, false));
+		Assert.assertEquals("post", luces.route(post).getTypeName());
+	}
+
+	@Test(expected = NoSuchElementException.class)
+	public void testDocumentWithoutType() {
+		new RoutingLuces(Version.LUCENE_36, TYPE_FIELD).documentToJSONStringified(new Document(), false);
+	}
+
+	private static LucesMapping compile(String type, String properties) {
+		return LucesMapping.compile(type, new JsonParser().parse("{\"" + type + "\":{\"properties\":" + properties
+				+ "}}").getAsJsonObject());
+	}
+
+	private static Document createDocument(String type, String id) {
+		Document doc = new Document();
+		doc.add(new Field(TYPE_FIELD, type, Store.YES, Index.NOT_ANALYZED));
+		doc.add(new Field("id", id, Store.YES, Index.NOT_ANALYZED));
+		return doc;
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * Utf8JsonOutputTest.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.util.Version;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * The UTF-8 output must produce the same bytes as a default Gson JSON writer on a UTF-8 stream
+ */
+public class Utf8JsonOutputTest {
+
+	@Test
+	public void testEveryCharacter() throws IOException {
+		StringBuilder all = new StringBuilder();
+		for (char c = 0; c < Character.MAX_VALUE; ++c) {
+			all.append(c);
+		}
+		assertSameString(all.toString());
+	}
+
+	@Test
+	public void testSurrogates() throws IOException {
+		assertSameString("\uD83D\uDE00 emoji");
+		assertSameString("unpaired \uD83D high");
+		assertSameString("unpaired \uDE00 low");
+		assertSameString("reversed \uDE00\uD83D pair");
+		assertSameString("trailing high \uD83D");
+		Random random = new Random(42);
+		for (int i = 0; i < 1000; ++i) {
+			char[] chars = new char[random.nextInt(20)];
+			for (int j = 0; j < chars.length; ++j) {
+				chars[j] = (char) (random.nextBoolean() ? random.nextInt(0x10000) : 0xd800 + random.nextInt(0x800));
+			}
+			assertSameString(new String(chars));
+		}
+	}
+
+	@Test
+	public void testStructure() throws IOException {
+		FieldDescriptor field = new FieldDescriptor("a<b", ParseType.LONG, FieldDescriptor.EmptyValue.PARSE);
+		Utf8JsonOutput actual = new Utf8JsonOutput(1);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		JsonWriter expected = gsonWriter(bytes);
+		for (DocumentOutput out : Arrays.<DocumentOutput>asList(actual, new JsonWriterOutput(expected))) {
+			out.beginObject();
+			out.name(field.getKey());
+			out.value(Long.MIN_VALUE);
+			out.name("dropped");
+			out.nullValue();
+			out.name("values");
+			out.beginArray();
+			out.value(0L);
+			out.value(-12L);
+			out.nullValue();
+			out.value(4.2453);
+			out.value(1e-7);
+			out.value(4.2f);
+			out.binaryValue("xfoobar".getBytes(StandardCharsets.US_ASCII), 1, 5);
+			out.value(true);
+			out.value((String) null);
+			out.beginObject();
+			out.endObject();
+			out.endArray();
+			out.name(field.getKey());
+			out.value(false);
+			out.endObject();
+		}
+		expected.flush();
+		Assert.assertEquals(new String(bytes.toByteArray(), StandardCharsets.UTF_8),
+				new String(actual.bytes(), 0, actual.size(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testBinaryPadding() throws IOException {
+		// lengths 1 and 4 have two padding chars, 2 and 5 one
+		byte[] foobar = "foobar".getBytes(StandardCharsets.US_ASCII);
+		for (int length = 0; length <= foobar.length; ++length) {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			JsonWriter expected = gsonWriter(bytes);
+			expected.beginArray().value(Base64Encoder.encode(foobar, 0, length)).value(1).endArray().flush();
+			Utf8JsonOutput actual = new Utf8JsonOutput(4);
+			actual.beginArray();
+			actual.binaryValue(foobar, 0, length);
+			actual.value(1L);
+			actual.endArray();
+			Assert.assertEquals(new String(bytes.toByteArray(), StandardCharsets.UTF_8),
+					new String(actual.bytes(), 0, actual.size(), StandardCharsets.UTF_8));
+		}
+
+		Document doc = new Document();
+		doc.add(new Field("b", new byte[] {'f'}));
+		doc.add(new Field("c", "foob".getBytes(StandardCharsets.US_ASCII)));
+		ByteArrayOutputStream json = new ByteArrayOutputStream();
+		Luces luces = new Luces(Version.LUCENE_36).throwErrorIfMappingIsNull(false);
+		luces.writeJSON(doc, json, false);
+		Assert.assertEquals("{\"b\":\"Zg\\u003d\\u003d\",\"c\":\"Zm9vYg\\u003d\\u003d\"}",
+				new String(json.toByteArray(), StandardCharsets.UTF_8));
+		Assert.assertEquals(luces.documentToJSONStringified(doc, false),
+				new String(json.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testBase64() {
+		// RFC 4648 test vectors
+		String[] expected = {"", "Zg==", "Zm8=", "Zm9v", "Zm9vYg==", "Zm9vYmE=", "Zm9vYmFy"};
+		byte[] foobar = "foobar".getBytes(StandardCharsets.US_ASCII);
+		for (int length = 0; length <= foobar.length; ++length) {
+			Assert.assertEquals(expected[length], Base64Encoder.encode(foobar, 0, length));
+		}
+		Assert.assertEquals("/+8=", Base64Encoder.encode(new byte[]{(byte) 0xff, (byte) 0xef}, 0, 2));
+	}
+
+	private static void assertSameString(String value) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		JsonWriter expected = gsonWriter(bytes);
+		expected.beginArray().value(value).endArray().flush();
+		Utf8JsonOutput actual = new Utf8JsonOutput(16);
+		actual.beginArray();
+		actual.value(value);
+		actual.endArray();
+		Assert.assertArrayEquals(bytes.toByteArray(), Arrays.copyOf(actual.bytes(), actual.size()));
+	}
+
+	private static JsonWriter gsonWriter(ByteArrayOutputStream bytes) {
+		return AbstractLucesConverter.newJsonWriter(new OutputStreamWriter(bytes, StandardCharsets.UTF_8), false);
+	}
+}
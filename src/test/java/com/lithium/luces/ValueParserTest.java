@@ -0,0 +1,230 @@
+/*
+ * ValueParserTest.java
+ * Created on Oct 18, 2026
+ *
+ * Copyright 2026 Lithium Technologies
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.lithium.luces;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks the parser against the JDK parsers on the trimmed value, including the error messages
+ */
+public class ValueParserTest {
+
+	private static final String[] LONGS = {
+			"0", "-0", "+7", " 42 ", "\t-12\n", "655351", "9223372036854775807", "-9223372036854775808",
+			"9223372036854775808", "-9223372036854775809", "99999999999999999999", "", "   ", "-", "+", "12a",
+			"1 2", "1.0", "٣٤", "0x10", "--1"
+	};
+
+	private static final String[] DOUBLES = {
+			"0", "-0", "-0.0", "4.2453", "  4.2453 ", "1.", ".5", "+.5", "-.5e1", "1e10", "1E-5", "1e22", "1e23",
+			"1e-22", "123456789012345", "1234567890123456", "0.1", "0.30000000000000004", "3.4028235E38",
+			"1.7976931348623157E308", "4.9E-324", "1e400", "1e-400", "NaN", "-Infinity", "1.5f", "2d", "0x1p3",
+			"", " ", ".", "e5", "1e", "1e+", "1.2.3", "abc", "1,5", "00000000000000000000012.5", "0.000000000001234"
+	};
+
+	@Test
+	public void testLongsMatchJdk() {
+		for (String value : LONGS) {
+			assertSameLong(value);
+		}
+		Random random = new Random(42);
+		for (int i = 0; i < 10000; ++i) {
+			assertSameLong(" " + random.nextLong() + " ");
+		}
+	}
+
+	@Test
+	public void testDoublesMatchJdk() {
+		for (String value : DOUBLES) {
+			assertSameDouble(value);
+		}
+		Random random = new Random(42);
+		for (int i = 0; i < 10000; ++i) {
+			assertSameDouble(String.valueOf(random.nextDouble() * Math.pow(10, random.nextInt(40) - 20)));
+			assertSameDouble(String.valueOf(random.nextInt()) + "." + random.nextInt(1000000));
+			assertSameDouble(String.valueOf((float) random.nextGaussian()));
+		}
+	}
+
+	@Test
+	public void testValidationMatchesJdk() {
+		for (String value : LONGS) {
+			Assert.assertEquals(value, parses(value, true), ValueParser.isLong(value));
+		}
+		Random random = new Random(42);
+		for (int i = 0; i < 1000; ++i) {
+			Assert.assertTrue(ValueParser.isLong(String.valueOf(random.nextLong())));
+		}
+		String[] more = {"0x1.8p1", "-0X1P-3d", "0x1", "0x.p1", "0xg1p1", "1e5f", "1f5", "1e5 f", "+", "-.e1", "1_0"};
+		for (String value : concat(DOUBLES, more)) {
+			boolean nonFinite = value.contains("NaN") || value.contains("Infinity");
+			Assert.assertEquals(value, parses(value, false) && !nonFinite, ValueParser.isDouble(value));
+		}
+	}
+
+	private static boolean parses(String value, boolean integral) {
+		try {
+			if (integral) {
+				Long.parseLong(value.trim());
+			} else {
+				Double.parseDouble(value);
+			}
+			return true;
+		} catch (NumberFormatException ex) {
+			return false;
+		}
+	}
+
+	private static boolean parses(String value, long min, long max) {
+		try {
+			long parsed = Long.parseLong(value.trim());
+			return parsed >= min && parsed <= max;
+		} catch (NumberFormatException ex) {
+			return false;
+		}
+	}
+
+	private static String[] concat(String[] first, String[] second) {
+		String[] all = Arrays.copyOf(first, first.length + second.length);
+		System.arraycopy(second, 0, all, first.length, second.length);
+		return all;
+	}
+
+	@Test
+	public void testNarrowTypesMatchJdk() {
+		String[] values = concat(LONGS, new String[] {"127", "128", "-128", "-129", " 200 ", "32767", "32768", "-32769"});
+		for (String value : values) {
+			// beyond an int, the JDK reports a long as not a number, instead of out of range
+			if (!parses(value, Long.MIN_VALUE, Long.MAX_VALUE) || parses(value, Integer.MIN_VALUE, Integer.MAX_VALUE)) {
+				assertSameByte(value);
+				assertSameShort(value);
+			}
+			Assert.assertEquals(value, parses(value, Byte.MIN_VALUE, Byte.MAX_VALUE),
+					ValueParser.isLong(value, Byte.MIN_VALUE, Byte.MAX_VALUE));
+			Assert.assertEquals(value, parses(value, Short.MIN_VALUE, Short.MAX_VALUE),
+					ValueParser.isLong(value, Short.MIN_VALUE, Short.MAX_VALUE));
+		}
+	}
+
+	@Test
+	public void testRanges() {
+		Assert.assertEquals(Integer.MAX_VALUE, ValueParser.parseLong("2147483647", Integer.MIN_VALUE, Integer.MAX_VALUE));
+		Assert.assertEquals(Integer.MIN_VALUE, ValueParser.parseLong("-2147483648", Integer.MIN_VALUE, Integer.MAX_VALUE));
+		Assert.assertFalse(ValueParser.isLong("2147483648", Integer.MIN_VALUE, Integer.MAX_VALUE));
+		try {
+			ValueParser.parseLong(" 2147483648 ", Integer.MIN_VALUE, Integer.MAX_VALUE);
+			Assert.fail("Expected a NumberFormatException");
+		} catch (NumberFormatException ex) {
+			Assert.assertEquals("Value out of range. Value:\"2147483648\" Radix:10", ex.getMessage());
+		}
+
+		Assert.assertEquals(3.4028235E38, ValueParser.parseFloat("3.4028235E38"), 0.0);
+		Assert.assertEquals(1.5, ValueParser.parseFloat("1.5"), 0.0);
+		try {
+			ValueParser.parseFloat("-1e39");
+			Assert.fail("Expected a NumberFormatException");
+		} catch (NumberFormatException ex) {
+			Assert.assertEquals("Value out of range. Value:\"-1e39\" Radix:10", ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testBooleans() {
+		for (String value : new String[] {"true", " TRUE ", "tRuE", "false", "", " ", "truee", "tru", "yes"}) {
+			Assert.assertEquals(value, Boolean.parseBoolean(value.trim()), ValueParser.parseBoolean(value));
+		}
+	}
+
+	@Test
+	public void testBlank() {
+		Assert.assertTrue(ValueParser.isBlank(""));
+		Assert.assertTrue(ValueParser.isBlank(" \t\n"));
+		Assert.assertFalse(ValueParser.isBlank(" a "));
+	}
+
+	private static void assertSameLong(String value) {
+		String expected;
+		try {
+			expected = String.valueOf(Long.parseLong(value.trim()));
+		} catch (NumberFormatException ex) {
+			expected = ex.getMessage();
+		}
+		String actual;
+		try {
+			actual = String.valueOf(ValueParser.parseLong(value));
+		} catch (NumberFormatException ex) {
+			actual = ex.getMessage();
+		}
+		Assert.assertEquals(value, expected, actual);
+	}
+
+	private static void assertSameDouble(String value) {
+		String expected;
+		try {
+			// raw bits, to tell -0.0 apart and catch rounding differences
+			expected = Long.toHexString(Double.doubleToRawLongBits(Double.parseDouble(value.trim())));
+		} catch (NumberFormatException ex) {
+			expected = ex.getMessage();
+		}
+		String actual;
+		try {
+			actual = Long.toHexString(Double.doubleToRawLongBits(ValueParser.parseDouble(value)));
+		} catch (NumberFormatException ex) {
+			actual = ex.getMessage();
+		}
+		Assert.assertEquals(value, expected, actual);
+	}
+
+	private static void assertSameByte(String value) {
+		String expected;
+		try {
+			expected = String.valueOf(Byte.parseByte(value.trim()));
+		} catch (NumberFormatException ex) {
+			expected = ex.getMessage();
+		}
+		String actual;
+		try {
+			actual = String.valueOf(ValueParser.parseLong(value, Byte.MIN_VALUE, Byte.MAX_VALUE));
+		} catch (NumberFormatException ex) {
+			actual = ex.getMessage();
+		}
+		Assert.assertEquals(value, expected, actual);
+	}
+
+	private static void assertSameShort(String value) {
+		String expected;
+		try {
+			expected = String.valueOf(Short.parseShort(value.trim()));
+		} catch (NumberFormatException ex) {
+			expected = ex.getMessage();
+		}
+		String actual;
+		try {
+			actual = String.valueOf(ValueParser.parseLong(value, Short.MIN_VALUE, Short.MAX_VALUE));
+		} catch (NumberFormatException ex) {
+			actual = ex.getMessage();
+		}
+		Assert.assertEquals(value, expected, actual);
+	}
+}